@@ -7,6 +7,8 @@ import com.ezh.ezauth.auth.dto.GoogleSignInRequest;
 import com.ezh.ezauth.auth.dto.ResetPasswordRequest;
 import com.ezh.ezauth.auth.dto.ResendOtpRequest;
 import com.ezh.ezauth.auth.dto.SignInRequest;
+import com.ezh.ezauth.auth.dto.TokenBatchValidationRequest;
+import com.ezh.ezauth.auth.dto.TokenIntrospectionResponse;
 import com.ezh.ezauth.auth.dto.TokenRefreshRequest;
 import com.ezh.ezauth.auth.service.AuthService;
 import com.ezh.ezauth.tenant.dto.*;
@@ -15,7 +17,6 @@ import com.ezh.ezauth.user.dto.UserInitResponse;
 import com.ezh.ezauth.utils.common.CommonResponse;
 import com.ezh.ezauth.utils.common.ResponseResource;
 import com.ezh.ezauth.utils.exception.CommonException;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +25,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -49,13 +52,8 @@ public class AuthController {
     }
 
     @GetMapping(value = "/user/init", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseResource<UserInitResponse> initUser(HttpServletRequest request) throws CommonException {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            throw new CommonException("Authorization header missing or malformed", HttpStatus.UNAUTHORIZED);
-        }
-        String token = authHeader.substring(7);
-        UserInitResponse response = authService.initUser(token);
+    public ResponseResource<UserInitResponse> initUser() throws CommonException {
+        UserInitResponse response = authService.initUser();
         return ResponseResource.success(HttpStatus.OK, response, "User init successful");
     }
 
@@ -84,6 +82,13 @@ public class AuthController {
         return ResponseResource.success(HttpStatus.OK, response, "Token is valid");
     }
 
+    @PostMapping(value = "/validate/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseResource<List<TokenIntrospectionResponse>> validateTokens(@Valid @RequestBody TokenBatchValidationRequest request) throws CommonException {
+        log.info("Entered batch validateToken check for {} tokens", request.getTokens().size());
+        List<TokenIntrospectionResponse> response = authService.validateTokens(request.getTokens());
+        return ResponseResource.success(HttpStatus.OK, response, "Tokens validated");
+    }
+
     @PostMapping(value = "/signout", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> signout(
             @RequestHeader(HttpHeaders.AUTHORIZATION) String bearerToken) throws CommonException {
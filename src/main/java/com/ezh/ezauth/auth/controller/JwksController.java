@@ -0,0 +1,32 @@
+package com.ezh.ezauth.auth.controller;
+
+import com.ezh.ezauth.security.JwtKeyStore;
+import com.ezh.ezauth.security.JwtSigningProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Publishes the public signing keys so resource servers can verify tokens locally.
+ * The document is built once at startup and served from memory.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyStore jwtKeyStore;
+    private final JwtSigningProperties signingProperties;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(signingProperties.getJwksMaxAgeSeconds())).cachePublic())
+                .body(jwtKeyStore.getJwks());
+    }
+}
@@ -0,0 +1,18 @@
+package com.ezh.ezauth.auth.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenBatchValidationRequest {
+    @NotEmpty(message = "At least one token is required")
+    @Size(max = 500, message = "A maximum of 500 tokens can be validated per request")
+    private List<String> tokens;
+}
@@ -0,0 +1,26 @@
+package com.ezh.ezauth.auth.dto;
+
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * Per-token result of a batch validation; results are returned in request order.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenIntrospectionResponse {
+    private boolean valid;
+    private Long userId;
+    private String userUuid;
+    private Long tenantId;
+    private String tenantUuid;
+    private String userType;
+    private String roles;
+    private String accountScope;
+    private Date expiresAt;
+    private String error;
+}
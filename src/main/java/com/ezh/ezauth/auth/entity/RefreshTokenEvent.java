@@ -0,0 +1,51 @@
+package com.ezh.ezauth.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the append-only refresh-token log; rows are never updated.
+ * {@code tokenHash} is the SHA-256 of the token's jti, never the jti itself.
+ */
+@Entity
+@Table(name = "refresh_token_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshTokenEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "family_id", nullable = false, updatable = false)
+    private String familyId;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, updatable = false)
+    private RefreshTokenEventType eventType;
+
+    @Column(name = "token_hash", updatable = false)
+    private String tokenHash;
+
+    @Column(name = "parent_hash", updatable = false)
+    private String parentHash;
+
+    @Column(name = "reason", updatable = false)
+    private String reason;
+
+    @Column(name = "expires_at", nullable = false, updatable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
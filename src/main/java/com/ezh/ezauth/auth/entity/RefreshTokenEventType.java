@@ -0,0 +1,7 @@
+package com.ezh.ezauth.auth.entity;
+
+public enum RefreshTokenEventType {
+    ISSUED,
+    ROTATED,
+    REVOKED
+}
@@ -0,0 +1,6 @@
+package com.ezh.ezauth.auth.entity;
+
+public enum RevocationSubjectType {
+    USER,
+    TENANT
+}
@@ -0,0 +1,35 @@
+package com.ezh.ezauth.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "token_revocations")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "subject_type", nullable = false, updatable = false)
+    private RevocationSubjectType subjectType;
+
+    @Column(name = "subject_id", nullable = false, updatable = false)
+    private Long subjectId;
+
+    @Column(name = "revoked_before", nullable = false, updatable = false)
+    private LocalDateTime revokedBefore;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,54 @@
+package com.ezh.ezauth.auth.repository;
+
+import com.ezh.ezauth.auth.entity.RefreshTokenEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenEventRepository extends JpaRepository<RefreshTokenEvent, Long> {
+
+    /**
+     * One unexpired row per family, standing for what folding the family's log yields: its
+     * REVOKED row if it has one (a rotation racing the revocation may be appended after it),
+     * otherwise the newest row.
+     */
+    @Query(value = "SELECT DISTINCT ON (family_id) * FROM auth.refresh_token_events " +
+            "WHERE expires_at > :now ORDER BY family_id, (event_type = 'REVOKED') DESC, id DESC",
+            nativeQuery = true)
+    List<RefreshTokenEvent> findLatestPerFamily(@Param("now") LocalDateTime now);
+
+    List<RefreshTokenEvent> findByFamilyIdOrderByIdAsc(String familyId);
+
+    /**
+     * Appends a row that consumes {@code parentHash}, unless that token was already used or
+     * the family was revoked, and returns its id; empty in either case. The unique index on
+     * parent_hash makes this the cluster-wide arbiter of reuse. Used for rotations and for
+     * the ISSUED row of a family adopted from a legacy token.
+     */
+    @Query(value = "INSERT INTO auth.refresh_token_events " +
+            "(family_id, user_id, event_type, token_hash, parent_hash, expires_at, created_at) " +
+            "SELECT :familyId, :userId, :eventType, :tokenHash, :parentHash, :expiresAt, NOW() " +
+            "WHERE NOT EXISTS (SELECT 1 FROM auth.refresh_token_events r " +
+            "WHERE r.family_id = :familyId AND r.event_type = 'REVOKED') " +
+            "ON CONFLICT (parent_hash) WHERE parent_hash IS NOT NULL DO NOTHING " +
+            "RETURNING id", nativeQuery = true)
+    List<Long> appendUnlessUsed(@Param("familyId") String familyId,
+                                @Param("userId") Long userId,
+                                @Param("eventType") String eventType,
+                                @Param("tokenHash") String tokenHash,
+                                @Param("parentHash") String parentHash,
+                                @Param("expiresAt") LocalDateTime expiresAt);
+
+    Optional<RefreshTokenEvent> findFirstByParentHash(String parentHash);
+
+    @Modifying
+    @Query("DELETE FROM RefreshTokenEvent e WHERE e.expiresAt < :before")
+    int deleteExpiredBefore(@Param("before") LocalDateTime before);
+}
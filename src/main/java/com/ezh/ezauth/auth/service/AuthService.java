@@ -6,14 +6,17 @@ import com.ezh.ezauth.auth.dto.ForgotPasswordRequest;
 import com.ezh.ezauth.auth.dto.GoogleSignInRequest;
 import com.ezh.ezauth.auth.dto.ResetPasswordRequest;
 import com.ezh.ezauth.auth.dto.SignInRequest;
+import com.ezh.ezauth.auth.dto.TokenIntrospectionResponse;
 import com.ezh.ezauth.auth.dto.TokenRefreshRequest;
 import com.ezh.ezauth.security.JwtTokenProvider;
+import com.ezh.ezauth.security.VerifiedToken;
 import com.ezh.ezauth.subscription.service.SubscriptionService;
 import com.ezh.ezauth.tenant.service.TenantService;
 import com.ezh.ezauth.user.dto.UserInitResponse;
 import com.ezh.ezauth.user.entity.User;
 import com.ezh.ezauth.user.entity.UserRole;
 import com.ezh.ezauth.user.repository.UserRepository;
+import com.ezh.ezauth.user.service.PermissionVersionService;
 import com.ezh.ezauth.user.service.UserService;
 import com.ezh.ezauth.utils.EmailService;
 import com.ezh.ezauth.utils.UserContextUtil;
@@ -22,22 +25,25 @@ import com.ezh.ezauth.utils.common.Status;
 import com.ezh.ezauth.utils.exception.CommonException;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.gson.GsonFactory;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import org.springframework.beans.factory.annotation.Value;
 
@@ -49,155 +55,122 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final UserService userService;
+    private final PermissionVersionService permissionVersionService;
     private final JwtTokenProvider jwtTokenProvider;
-    private final AuthenticationManager authenticationManager;
+    private final RefreshTokenStore refreshTokenStore;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
     private final TenantService tenantService;
     private final SubscriptionService subscriptionService;
     private final CacheManager cacheManager;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final PlatformTransactionManager transactionManager;
 
     @Value("${google.client.id}")
     private String googleClientId;
 
 
-    @Transactional(readOnly = true)
+    /**
+     * One SELECT loads the user, tenant and roles in a short read-only transaction; the
+     * password is then checked with no connection held, since the hash takes far longer
+     * than the query. A hash the encoder wants upgraded is replaced by a targeted UPDATE,
+     * and only once every check has passed.
+     */
     public AuthResponse signIn(SignInRequest request)  throws CommonException{
         // Fetch user
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new CommonException("Invalid Email", HttpStatus.UNAUTHORIZED));
+        SignInCandidate candidate = readOnlyTransaction().execute(status ->
+                userRepository.findForSignIn(request.getEmail()).map(SignInCandidate::of).orElse(null));
+        if (candidate == null) {
+            throw new CommonException("Invalid Email", HttpStatus.UNAUTHORIZED);
+        }
 
-        try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-            );
-        } catch (BadCredentialsException e) {
+        if (!passwordEncoder.matches(request.getPassword(), candidate.passwordHash())) {
             // If email was right but password was wrong
             throw new CommonException("Invalid password", HttpStatus.UNAUTHORIZED);
         }
 
-        if (!user.getIsActive()) {
+        if (!candidate.active()) {
             throw new CommonException("Account is inactive. Contact your administrator.", HttpStatus.FORBIDDEN);
         }
 
-        if (!subscriptionService.hasValidSubscription(user.getTenant().getId())) {
+        TokenSubject subject = candidate.subject();
+        if (!subscriptionService.hasValidSubscription(subject.tenantId())) {
             throw new CommonException("Your organization's subscription has expired or is inactive. Please contact support.", HttpStatus.FORBIDDEN);
         }
 
-        // Extract roles as comma-separated string
-        String roles = extractUserRoles(user);
-
-        // Generate tokens
-        String accessToken = jwtTokenProvider.generateAccessToken(
-                user.getId(),
-                user.getUserUuid(),
-                user.getEmail(),
-                user.getTenant().getId(),
-                user.getTenant().getTenantUuid(),
-                user.getUserType().name(),
-                roles,
-                user.getAccountScope().name()
-        );
-        String refreshToken = jwtTokenProvider.generateRefreshToken(user.getId());
+        if (passwordEncoder.upgradeEncoding(candidate.passwordHash())) {
+            upgradePasswordHash(subject.userId(), candidate.passwordHash(), request.getPassword());
+        }
 
-        return AuthResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
-                .tokenType("Bearer")
-                .message("Success")
-                .build();
+        RefreshTokenStore.IssuedRefreshToken issued = refreshTokenStore.issue(subject.userId());
+        return issueTokens(subject, issued, "Success");
     }
 
 
-    @Transactional(readOnly = true)
+    /**
+     * Not transactional: the user is read in a short read-only transaction, and the rotation
+     * writes its own, so a reused token's family is revoked even though this call fails.
+     */
     public AuthResponse refreshToken(TokenRefreshRequest request) {
 
         String refreshToken = request.getRefreshToken();
 
-        // Validate refresh token
-        if (!jwtTokenProvider.validateToken(refreshToken) || !jwtTokenProvider.isRefreshToken(refreshToken)) {
+        // Validate refresh token (single parse)
+        VerifiedToken verified;
+        try {
+            verified = jwtTokenProvider.parseToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new CommonException("Invalid or expired refresh token", HttpStatus.UNAUTHORIZED);
+        }
+        if (!verified.isRefreshToken()) {
             throw new CommonException("Invalid or expired refresh token", HttpStatus.UNAUTHORIZED);
         }
 
         // Get user ID from refresh token
-        Long userId = jwtTokenProvider.getUserIdFromToken(refreshToken);
+        Long userId = verified.getUserId();
 
         // Fetch user
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new CommonException("User not found", HttpStatus.NOT_FOUND));
+        TokenSubject subject = readOnlyTransaction().execute(status ->
+                userRepository.findById(userId).map(TokenSubject::of).orElse(null));
+        if (subject == null) {
+            throw new CommonException("User not found", HttpStatus.NOT_FOUND);
+        }
+
+        // Refresh tokens carry no tenant, so the tenant cutoff is checked against the user's
+        if (tokenRevocationRegistry.isRevoked(userId, subject.tenantId(), verified.getIssuedAt())) {
+            throw new CommonException("Invalid or expired refresh token", HttpStatus.UNAUTHORIZED);
+        }
 
         // Subscription Validation Check (in case it expired while they were logged in)
-        if (!subscriptionService.hasValidSubscription(user.getTenant().getId())) {
+        if (!subscriptionService.hasValidSubscription(subject.tenantId())) {
             throw new CommonException("Your organization's subscription has expired or is inactive.", HttpStatus.FORBIDDEN);
         }
 
-        // Extract roles as comma-separated string
-        String roles = extractUserRoles(user);
-
-        // Generate new access token
-        String newAccessToken = jwtTokenProvider.generateAccessToken(
-                user.getId(),
-                user.getUserUuid(),
-                user.getEmail(),
-                user.getTenant().getId(),
-                user.getTenant().getTenantUuid(),
-                user.getUserType().name(),
-                roles,
-                user.getAccountScope().name()
-        );
-
-        String newRefreshToken = jwtTokenProvider.generateRefreshToken(user.getId());
-
-        return AuthResponse
-                .builder()
-                .accessToken(newAccessToken)
-                .refreshToken(newRefreshToken)
-                .tokenType("Bearer")
-                .message("Token refreshed successfully")
-                .build();
+        // Rotate last, so a refused refresh leaves the presented token usable
+        RefreshTokenStore.IssuedRefreshToken issued = refreshTokenStore.rotate(refreshToken, verified);
+        return issueTokens(subject, issued, "Token refreshed successfully");
     }
 
     /**
-     * CACHE IMPLEMENTATION:
-     * value = "userInitCache" -> The specific cache container to use
-     * key = SpEL expression -> Extracts userId from token for cache key
-     * unless = "#result == null" -> Don't cache errors or nulls
+     * The token was already verified by JwtAuthFilter; the user comes from the security
+     * context. The payload is cached in userInitCache under userId:permissionVersion.
+     * Not transactional, so a cache hit never borrows a connection.
      */
-    @Transactional(readOnly = true)
-    @Cacheable(value = "userInitCache", key = "@jwtTokenProvider.getUserIdFromToken(#token)", unless = "#result == null")
-    public UserInitResponse initUser(String token) throws CommonException {
-
-        // This log only prints if the data was NOT found in cache (Cache Miss)
-        log.info("Fetching User Init Data from Database (Cache Miss)");
-
-        if (token == null || token.isBlank()) {
-            throw new CommonException("Token is missing", HttpStatus.BAD_REQUEST);
-        }
-
-        if (!jwtTokenProvider.validateToken(token)) {
-            throw new CommonException("Invalid or expired token", HttpStatus.UNAUTHORIZED);
-        }
-
-        // Extract userId from token first for cache key
-        Long userId;
-        try {
-            userId = jwtTokenProvider.getUserIdFromToken(token);
-        } catch (Exception e) {
-            throw new CommonException("Invalid user information in token", HttpStatus.UNAUTHORIZED);
-        }
-
-        return userService.getUserInitDetails(userId);
+    public UserInitResponse initUser() throws CommonException {
+        Long userId = UserContextUtil.getUserIdOrThrow();
+        return userService.getUserInitDetails(userId, permissionVersionService.current(userId));
     }
 
-    @Transactional(readOnly = true)
+    /** Not transactional: a verified-token cache hit must not borrow a connection. */
     public CommonResponse validateToken(String token) throws CommonException {
         log.info("Execution started: Validating access token integrity and expiration");
 
-        boolean isValid = jwtTokenProvider.validateToken(token);
+        boolean isValid = jwtTokenProvider.validateToken(token)
+                && !tokenRevocationRegistry.isRevoked(jwtTokenProvider.parseToken(token));
 
         //Explicitly handle invalid cases if no exception was thrown
         if (!isValid) {
-            log.warn("Token validation failed: Invalid signature or expired");
+            log.warn("Token validation failed: Invalid signature, expired or revoked");
             throw new CommonException("Invalid or expired token", HttpStatus.UNAUTHORIZED);
         }
 
@@ -207,15 +180,64 @@ public class AuthService {
                 .build();
     }
 
-    public CommonResponse signout(String token) {
+    /**
+     * Introspect many tokens in one call. Each token goes through the same cached
+     * parsing path as the filter, and duplicates within a batch are verified once.
+     */
+    public List<TokenIntrospectionResponse> validateTokens(List<String> tokens) {
+        log.info("Execution started: Batch validating {} tokens", tokens.size());
+
+        Map<String, TokenIntrospectionResponse> results = new HashMap<>();
+        List<TokenIntrospectionResponse> responses = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            responses.add(results.computeIfAbsent(token == null ? "" : token, this::introspect));
+        }
+        return responses;
+    }
+
+    private TokenIntrospectionResponse introspect(String token) {
+        if (token.isBlank()) {
+            return TokenIntrospectionResponse.builder().valid(false).error("Token is missing").build();
+        }
         try {
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
-            Cache userInitCacheRef = cacheManager.getCache("userInitCache");
-            if (userInitCacheRef != null) {
-                userInitCacheRef.evict(userId);
+            VerifiedToken verified = jwtTokenProvider.parseToken(token);
+            if (!verified.isAccessToken()) {
+                return TokenIntrospectionResponse.builder().valid(false).error("Not an access token").build();
             }
-        } catch (Exception e) {
-            log.warn("Signout cache eviction skipped: {}", e.getMessage());
+            if (tokenRevocationRegistry.isRevoked(verified)) {
+                return TokenIntrospectionResponse.builder().valid(false).error("Token revoked").build();
+            }
+            return TokenIntrospectionResponse.builder()
+                    .valid(true)
+                    .userId(verified.getUserId())
+                    .userUuid(verified.getUserUuid())
+                    .tenantId(verified.getTenantId())
+                    .tenantUuid(verified.getTenantUuid())
+                    .userType(verified.getUserType())
+                    .roles(verified.getRoles())
+                    .accountScope(verified.getAccountScope())
+                    .expiresAt(verified.getExpiresAt())
+                    .build();
+        } catch (ExpiredJwtException e) {
+            return TokenIntrospectionResponse.builder().valid(false).error("Token expired").build();
+        } catch (JwtException | IllegalArgumentException e) {
+            return TokenIntrospectionResponse.builder().valid(false).error("Invalid token").build();
+        }
+    }
+
+    /**
+     * Revokes the refresh-token family the access token was issued with, on every node.
+     * The access token itself stays valid until it expires.
+     */
+    public CommonResponse signout(String token) {
+        VerifiedToken verified;
+        try {
+            verified = jwtTokenProvider.parseToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new CommonException("Invalid or expired token", HttpStatus.UNAUTHORIZED);
+        }
+        if (verified.getFamilyId() != null) {
+            refreshTokenStore.revoke(verified.getFamilyId(), verified.getUserId(), RefreshTokenStore.REASON_SIGNOUT);
         }
         return CommonResponse.builder()
                 .status(Status.SUCCESS)
@@ -261,8 +283,6 @@ public class AuthService {
         userRepository.save(user);
 
         if (pwdResetCache != null) pwdResetCache.evict(request.getEmail());
-        Cache userInitCacheRef = cacheManager.getCache("userInitCache");
-        if (userInitCacheRef != null) userInitCacheRef.evict(user.getId());
 
         return CommonResponse.builder()
                 .status(Status.SUCCESS)
@@ -270,7 +290,10 @@ public class AuthService {
                 .build();
     }
 
-    @Transactional
+    /**
+     * The user is found or registered in its own transaction, which commits before the
+     * refresh-token family is started.
+     */
     public AuthResponse signInWithGoogle(GoogleSignInRequest request) throws CommonException {
         try {
             //Verify Google Token
@@ -293,38 +316,20 @@ public class AuthService {
             String pictureUrl = (String) payload.get("picture");
 
             //Find OR Register User
-            User user = userRepository.findByEmail(email).orElse(null);
-
-            if (user == null) {
-                user = tenantService.registerGoogleTenant(email, name, pictureUrl, request.getAppKey());
-            }
-
-            if (!subscriptionService.hasValidSubscription(user.getTenant().getId())) {
+            TokenSubject subject = new TransactionTemplate(transactionManager).execute(status -> {
+                User user = userRepository.findByEmail(email).orElse(null);
+                if (user == null) {
+                    user = tenantService.registerGoogleTenant(email, name, pictureUrl, request.getAppKey());
+                }
+                return TokenSubject.of(user);
+            });
+
+            if (!subscriptionService.hasValidSubscription(subject.tenantId())) {
                 throw new CommonException("Your organization's subscription has expired or is inactive.", HttpStatus.FORBIDDEN);
             }
 
-            // Extract roles as comma-separated string
-            String roles = extractUserRoles(user);
-
-            //Generate Tokens
-            String accessToken = jwtTokenProvider.generateAccessToken(
-                    user.getId(),
-                    user.getUserUuid(),
-                    user.getEmail(),
-                    user.getTenant().getId(),
-                    user.getTenant().getTenantUuid(),
-                    user.getUserType().name(),
-                    roles,
-                    user.getAccountScope().name()
-            );
-            String refreshToken = jwtTokenProvider.generateRefreshToken(user.getId());
-
-            return AuthResponse.builder()
-                    .accessToken(accessToken)
-                    .refreshToken(refreshToken)
-                    .tokenType("Bearer")
-                    .message("Google Sign-In Successful")
-                    .build();
+            RefreshTokenStore.IssuedRefreshToken issued = refreshTokenStore.issue(subject.userId());
+            return issueTokens(subject, issued, "Google Sign-In Successful");
 
         } catch (CommonException e) {
             throw e;
@@ -334,12 +339,69 @@ public class AuthService {
         }
     }
 
+    /** Best effort: the sign-in has already succeeded, and the old hash keeps working. */
+    private void upgradePasswordHash(Long userId, String currentHash, String rawPassword) {
+        try {
+            String upgraded = passwordEncoder.encode(rawPassword);
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    userRepository.replacePasswordHash(userId, currentHash, upgraded));
+        } catch (RuntimeException e) {
+            log.warn("Could not upgrade the password hash of user {}", userId, e);
+        }
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction;
+    }
+
+    private AuthResponse issueTokens(TokenSubject subject, RefreshTokenStore.IssuedRefreshToken issued, String message) {
+        String accessToken = jwtTokenProvider.generateAccessToken(
+                subject.userId(),
+                subject.userUuid(),
+                subject.email(),
+                subject.tenantId(),
+                subject.tenantUuid(),
+                subject.userType(),
+                subject.roles(),
+                subject.accountScope(),
+                issued.familyId()
+        );
+        String refreshToken = jwtTokenProvider.generateRefreshToken(subject.userId(), issued.tokenId(), issued.familyId());
+
+        return AuthResponse.builder()
+                .accessToken(accessToken)
+                .refreshToken(refreshToken)
+                .tokenType("Bearer")
+                .message(message)
+                .build();
+    }
+
+    /** What the tokens are built from, copied out of the entity so no session is needed afterwards. */
+    private record TokenSubject(Long userId, String userUuid, String email, Long tenantId, String tenantUuid,
+                                String userType, String roles, String accountScope) {
+
+        static TokenSubject of(User user) {
+            return new TokenSubject(user.getId(), user.getUserUuid(), user.getEmail(),
+                    user.getTenant().getId(), user.getTenant().getTenantUuid(),
+                    user.getUserType().name(), extractUserRoles(user), user.getAccountScope().name());
+        }
+    }
+
+    private record SignInCandidate(TokenSubject subject, String passwordHash, boolean active) {
+
+        static SignInCandidate of(User user) {
+            return new SignInCandidate(TokenSubject.of(user), user.getPasswordHash(), user.getIsActive());
+        }
+    }
+
     /**
      * Extract active user roles as comma-separated string
      * @param user User entity with roles
      * @return Comma-separated role keys (e.g., "ADMIN,VIEWER") or empty string
      */
-    private String extractUserRoles(User user) {
+    private static String extractUserRoles(User user) {
         if (user.getUserRoles() == null) {
             return "";
         }
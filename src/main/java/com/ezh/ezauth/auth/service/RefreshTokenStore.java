@@ -0,0 +1,348 @@
+package com.ezh.ezauth.auth.service;
+
+import com.ezh.ezauth.auth.entity.RefreshTokenEvent;
+import com.ezh.ezauth.auth.entity.RefreshTokenEventType;
+import com.ezh.ezauth.auth.repository.RefreshTokenEventRepository;
+import com.ezh.ezauth.cluster.ClusterBus;
+import com.ezh.ezauth.security.VerifiedToken;
+import com.ezh.ezauth.utils.exception.CommonException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Refresh-token families: every sign-in starts one, every refresh rotates it to a new
+ * token, and presenting a token that was already rotated revokes the whole family.
+ * <p>
+ * Each node keeps familyId -> current token hash in memory, so revoked and reused tokens
+ * are rejected with one map lookup. Changes are appended to {@code refresh_token_events}
+ * in the caller's transaction, if there is one, and applied here and replicated over the
+ * {@link ClusterBus} once it commits. The log is the authority: a rotation is only
+ * accepted if its conditional insert succeeds, and a family that looks stale in memory
+ * (another node rotated it and the message has not arrived yet) is re-read from the log
+ * before anything is called reuse. Log ids order a family's states on every node.
+ * <p>
+ * Memory holds one small entry per family with an unexpired token, i.e. per sign-in within
+ * the refresh-token lifetime (7 days by default); nothing else bounds it. At a few hundred
+ * bytes an entry, a million live sessions cost a few hundred MB per node, so a deployment
+ * near that size should shorten the lifetime or move this state out of the heap.
+ */
+@Slf4j
+@Component
+public class RefreshTokenStore {
+
+    static final String TOPIC = "refresh-token";
+
+    static final String REASON_REUSE = "REUSE";
+    static final String REASON_SIGNOUT = "SIGNOUT";
+
+    private static final String INVALID = "Invalid or expired refresh token";
+    private static final String REUSED = "Refresh token was already used. Please sign in again.";
+
+    private final RefreshTokenEventRepository eventRepository;
+    private final ClusterBus clusterBus;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transaction;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    @Value("${jwt.refresh-token-expiration:604800000}")
+    private long refreshTokenExpiration;
+
+    @Value("${ezauth.refresh-token.accept-legacy:true}")
+    private boolean acceptLegacy;
+
+    public RefreshTokenStore(RefreshTokenEventRepository eventRepository,
+                             ClusterBus clusterBus,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        this.clusterBus = clusterBus;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.transaction = new TransactionTemplate(transactionManager);
+        Gauge.builder("ezauth.refresh-token.families", families, Map::size)
+                .description("Refresh-token families held in memory")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        clusterBus.subscribe(TOPIC, this::receive);
+        clusterBus.subscribe(ClusterBus.RESYNC_TOPIC, payload -> loadAll());
+    }
+
+    /** Id and family of a refresh token about to be signed. */
+    public record IssuedRefreshToken(String tokenId, String familyId) {
+    }
+
+    /** Committed change to one family, applied locally and sent to the other nodes after commit. */
+    public record FamilyChange(String familyId, Family family) {
+    }
+
+    /** Starts a new family for a sign-in; joins the caller's transaction if there is one. */
+    public IssuedRefreshToken issue(Long userId) {
+        String familyId = newId();
+        String tokenId = newId();
+        long expiresAt = nextExpiry();
+
+        RefreshTokenEvent event = transaction.execute(status -> eventRepository.save(RefreshTokenEvent.builder()
+                .familyId(familyId)
+                .userId(userId)
+                .eventType(RefreshTokenEventType.ISSUED)
+                .tokenHash(hash(tokenId))
+                .expiresAt(toDateTime(expiresAt))
+                .build()));
+        publish(familyId, new Family(event.getId(), userId, event.getTokenHash(), expiresAt, false));
+        return new IssuedRefreshToken(tokenId, familyId);
+    }
+
+    /**
+     * Replaces the presented token with a new one in the same family. Throws 401 if the
+     * family is unknown or revoked, and revokes it if the token was already rotated.
+     * <p>
+     * Must be called outside any transaction: the revocation of a reused family has to
+     * commit even though the refresh itself fails, and each write here is its own short
+     * transaction rather than a second pooled connection next to the caller's.
+     */
+    public IssuedRefreshToken rotate(String refreshToken, VerifiedToken token) {
+        Assert.state(!TransactionSynchronizationManager.isActualTransactionActive(),
+                "RefreshTokenStore.rotate must not run inside a transaction");
+        if (token.getFamilyId() == null || token.getTokenId() == null) {
+            return adoptLegacy(refreshToken, token);
+        }
+        String familyId = token.getFamilyId();
+        String presented = hash(token.getTokenId());
+
+        Family family = families.get(familyId);
+        if (family == null || (!family.revoked() && !presented.equals(family.currentHash()))) {
+            family = reload(familyId);
+        }
+        if (family == null || family.revoked()) {
+            count(family == null ? "unknown" : "revoked");
+            throw new CommonException(INVALID, HttpStatus.UNAUTHORIZED);
+        }
+        if (!presented.equals(family.currentHash())) {
+            throw rejectReuse(familyId, family.userId());
+        }
+
+        String tokenId = newId();
+        Family rotated = append(familyId, family.userId(), RefreshTokenEventType.ROTATED, hash(tokenId), presented);
+        if (rotated == null) {
+            throw lostAppend(familyId, family.userId());
+        }
+        publish(familyId, rotated);
+        count("rotated");
+        return new IssuedRefreshToken(tokenId, familyId);
+    }
+
+    public void revoke(String familyId, Long userId, String reason) {
+        // Memory may lag the log; no row of the family can expire later than one appended now.
+        long expiresAt = nextExpiry();
+        RefreshTokenEvent event = transaction.execute(status -> eventRepository.save(RefreshTokenEvent.builder()
+                .familyId(familyId)
+                .userId(userId)
+                .eventType(RefreshTokenEventType.REVOKED)
+                .reason(reason)
+                .expiresAt(toDateTime(expiresAt))
+                .build()));
+        publish(familyId, new Family(event.getId(), userId, null, expiresAt, true));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCommitted(FamilyChange change) {
+        families.merge(change.familyId(), change.family(), Family::merge);
+        clusterBus.publish(TOPIC, encode(change.familyId(), change.family()));
+    }
+
+    /** Reads one row per live family, already folded by the database. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        List<RefreshTokenEvent> latest = eventRepository.findLatestPerFamily(LocalDateTime.now());
+        latest.forEach(this::fold);
+        log.info("Loaded {} refresh-token families", latest.size());
+    }
+
+    /** Drops expired families from memory and their rows from the log. */
+    @Scheduled(fixedDelayString = "${ezauth.refresh-token.prune-interval:1h}",
+            initialDelayString = "${ezauth.refresh-token.prune-interval:1h}")
+    public void prune() {
+        long now = System.currentTimeMillis();
+        families.values().removeIf(family -> family.expiresAt() <= now);
+        Integer deleted = transaction.execute(status -> eventRepository.deleteExpiredBefore(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.info("Pruned {} expired refresh-token events", deleted);
+        }
+    }
+
+    /**
+     * Tokens issued before families existed carry no jti. The first refresh starts a family
+     * whose ISSUED row names the legacy token as its parent, so the same conditional insert
+     * that arbitrates rotations refuses a second use and revokes the family it started.
+     */
+    private IssuedRefreshToken adoptLegacy(String refreshToken, VerifiedToken token) {
+        if (!acceptLegacy) {
+            count("legacy-rejected");
+            throw new CommonException(INVALID, HttpStatus.UNAUTHORIZED);
+        }
+        String presented = hash(refreshToken);
+        String familyId = newId();
+        String tokenId = newId();
+        Family adopted = append(familyId, token.getUserId(), RefreshTokenEventType.ISSUED, hash(tokenId), presented);
+        if (adopted == null) {
+            RefreshTokenEvent first = eventRepository.findFirstByParentHash(presented).orElse(null);
+            if (first == null) {
+                count("legacy-rejected");
+                throw new CommonException(INVALID, HttpStatus.UNAUTHORIZED);
+            }
+            throw lostAppend(first.getFamilyId(), first.getUserId());
+        }
+        publish(familyId, adopted);
+        count("legacy");
+        return new IssuedRefreshToken(tokenId, familyId);
+    }
+
+    /** Conditional insert; null if the parent was already used or the family is revoked. */
+    private Family append(String familyId, Long userId, RefreshTokenEventType eventType,
+                          String tokenHash, String parentHash) {
+        long expiresAt = nextExpiry();
+        List<Long> ids = transaction.execute(status -> eventRepository.appendUnlessUsed(
+                familyId, userId, eventType.name(), tokenHash, parentHash, toDateTime(expiresAt)));
+        if (ids == null || ids.isEmpty()) {
+            return null;
+        }
+        return new Family(ids.get(0), userId, tokenHash, expiresAt, false);
+    }
+
+    /**
+     * The conditional insert was refused, because the family was revoked or the token was
+     * already rotated. Re-read the log to tell which: a revoked family is simply invalid,
+     * while a live one means the presented token is being reused.
+     */
+    private CommonException lostAppend(String familyId, Long userId) {
+        Family current = reload(familyId);
+        if (current == null || current.revoked()) {
+            count(current == null ? "unknown" : "revoked");
+            return new CommonException(INVALID, HttpStatus.UNAUTHORIZED);
+        }
+        return rejectReuse(familyId, userId);
+    }
+
+    private CommonException rejectReuse(String familyId, Long userId) {
+        log.warn("Refresh token reuse detected for user {}; revoking family {}", userId, familyId);
+        count("reused");
+        revoke(familyId, userId, REASON_REUSE);
+        return new CommonException(REUSED, HttpStatus.UNAUTHORIZED);
+    }
+
+    /** Memory is only ever behind the log, never ahead of it, so folding the log in catches up. */
+    private Family reload(String familyId) {
+        eventRepository.findByFamilyIdOrderByIdAsc(familyId).forEach(this::fold);
+        Family family = families.get(familyId);
+        return family != null && family.expiresAt() > System.currentTimeMillis() ? family : null;
+    }
+
+    private void fold(RefreshTokenEvent event) {
+        boolean revoked = event.getEventType() == RefreshTokenEventType.REVOKED;
+        families.merge(event.getFamilyId(),
+                new Family(event.getId(), event.getUserId(), event.getTokenHash(),
+                        toEpochMillis(event.getExpiresAt()), revoked),
+                Family::merge);
+    }
+
+    /** Applied and replicated after the surrounding transaction commits, or now if there is none. */
+    private void publish(String familyId, Family family) {
+        eventPublisher.publishEvent(new FamilyChange(familyId, family));
+    }
+
+    private void receive(String payload) {
+        String[] parts = payload.split("\\|", -1);
+        if (parts.length != 6) {
+            log.warn("Ignoring malformed refresh-token message: {}", payload);
+            return;
+        }
+        Family family = new Family(Long.parseLong(parts[1]), Long.valueOf(parts[2]),
+                parts[3].isEmpty() ? null : parts[3], Long.parseLong(parts[4]), Boolean.parseBoolean(parts[5]));
+        families.merge(parts[0], family, Family::merge);
+    }
+
+    private static String encode(String familyId, Family family) {
+        return familyId + "|" + family.eventId() + "|" + family.userId()
+                + "|" + (family.currentHash() != null ? family.currentHash() : "")
+                + "|" + family.expiresAt() + "|" + family.revoked();
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("ezauth.refresh-token.refresh", "outcome", outcome).increment();
+    }
+
+    private long nextExpiry() {
+        return System.currentTimeMillis() + refreshTokenExpiration;
+    }
+
+    private String newId() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static String hash(String tokenId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(tokenId.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * State of one family as of log row {@code eventId}. The higher id wins whatever order
+     * states arrive in; revocation is final whichever side it comes from.
+     */
+    record Family(long eventId, Long userId, String currentHash, long expiresAt, boolean revoked) {
+
+        static Family merge(Family existing, Family incoming) {
+            Family latest = incoming.eventId() >= existing.eventId() ? incoming : existing;
+            if ((existing.revoked() || incoming.revoked()) && !latest.revoked()) {
+                return new Family(latest.eventId(), latest.userId(), latest.currentHash(), latest.expiresAt(), true);
+            }
+            return latest;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.ezh.ezauth.auth.service;
+
+import com.ezh.ezauth.auth.entity.RevocationSubjectType;
+import com.ezh.ezauth.auth.entity.TokenRevocation;
+import com.ezh.ezauth.auth.repository.TokenRevocationRepository;
+import com.ezh.ezauth.cluster.ClusterBus;
+import com.ezh.ezauth.security.VerifiedToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tokens issued before a user or tenant was deactivated.
+ * <p>
+ * Holds one cutoff (epoch seconds) per revoked user and per revoked tenant; a token is
+ * revoked if its iat is before either. A small bloom filter over the revoked subjects
+ * answers the common case, a subject that was never revoked, without touching the maps.
+ * <p>
+ * Revocations are written to {@code token_revocations} in the caller's transaction and,
+ * once it commits, applied here and replicated over the {@link ClusterBus}. A cutoff is
+ * kept until every token issued before it has expired, then pruned from memory and the
+ * table, and the filter is rebuilt from what is left.
+ */
+@Slf4j
+@Component
+public class TokenRevocationRegistry {
+
+    static final String TOPIC = "token-revocation";
+
+    private final TokenRevocationRepository revocationRepository;
+    private final ClusterBus clusterBus;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final Counter rejected;
+
+    private final Map<Long, Long> userCutoffs = new ConcurrentHashMap<>();
+    private final Map<Long, Long> tenantCutoffs = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private volatile BloomFilter filter;
+
+    @Value("${jwt.access-token-expiration:3600000}")
+    private long accessTokenExpiration;
+
+    @Value("${jwt.refresh-token-expiration:604800000}")
+    private long refreshTokenExpiration;
+
+    @Value("${ezauth.token-revocation.bloom-bits:65536}")
+    private int bloomBits;
+
+    public TokenRevocationRegistry(TokenRevocationRepository revocationRepository,
+                                   ClusterBus clusterBus,
+                                   ApplicationEventPublisher eventPublisher,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.revocationRepository = revocationRepository;
+        this.clusterBus = clusterBus;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.rejected = Counter.builder("ezauth.token.revoked")
+                .description("Tokens refused because their user or tenant was revoked after issue")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        filter = new BloomFilter(bloomBits);
+        clusterBus.subscribe(TOPIC, this::receive);
+        clusterBus.subscribe(ClusterBus.RESYNC_TOPIC, payload -> loadAll());
+    }
+
+    /** Committed revocation, applied locally and sent to the other nodes after commit. */
+    public record Revocation(RevocationSubjectType subjectType, Long subjectId, long cutoff) {
+    }
+
+    public void revokeUser(Long userId) {
+        revoke(RevocationSubjectType.USER, userId);
+    }
+
+    public void revokeTenant(Long tenantId) {
+        revoke(RevocationSubjectType.TENANT, tenantId);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        return isRevoked(token.getUserId(), token.getTenantId(), token.getIssuedAt());
+    }
+
+    /** Called on every authenticated request; a miss is a few bit tests and no map lookups. */
+    public boolean isRevoked(Long userId, Long tenantId, Date issuedAt) {
+        if (issuedAt == null) {
+            return false;
+        }
+        long issuedAtSeconds = issuedAt.getTime() / 1000;
+        BloomFilter current = filter;
+        if (isBefore(current, RevocationSubjectType.USER, userCutoffs, userId, issuedAtSeconds)
+                || isBefore(current, RevocationSubjectType.TENANT, tenantCutoffs, tenantId, issuedAtSeconds)) {
+            rejected.increment();
+            return true;
+        }
+        return false;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCommitted(Revocation revocation) {
+        apply(revocation);
+        clusterBus.publish(TOPIC, revocation.subjectType() + "|" + revocation.subjectId() + "|" + revocation.cutoff());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        List<TokenRevocation> rows = revocationRepository.findByRevokedBeforeAfter(toDateTime(oldestRelevantCutoff()));
+        for (TokenRevocation row : rows) {
+            apply(new Revocation(row.getSubjectType(), row.getSubjectId(),
+                    row.getRevokedBefore().atZone(ZoneId.systemDefault()).toEpochSecond()));
+        }
+        log.info("Loaded {} token revocations", rows.size());
+    }
+
+    /** Bloom filters cannot forget, so expired cutoffs are dropped by rebuilding it. */
+    @Scheduled(fixedDelayString = "${ezauth.token-revocation.prune-interval:10m}",
+            initialDelayString = "${ezauth.token-revocation.prune-interval:10m}")
+    public void prune() {
+        long oldest = oldestRelevantCutoff();
+        synchronized (writeLock) {
+            userCutoffs.values().removeIf(cutoff -> cutoff < oldest);
+            tenantCutoffs.values().removeIf(cutoff -> cutoff < oldest);
+            BloomFilter rebuilt = new BloomFilter(bloomBits);
+            userCutoffs.keySet().forEach(id -> rebuilt.add(key(RevocationSubjectType.USER, id)));
+            tenantCutoffs.keySet().forEach(id -> rebuilt.add(key(RevocationSubjectType.TENANT, id)));
+            filter = rebuilt;
+        }
+        transaction.executeWithoutResult(status -> revocationRepository.deleteRevokedBefore(toDateTime(oldest)));
+    }
+
+    private void revoke(RevocationSubjectType subjectType, Long subjectId) {
+        // iat has whole seconds; round up so tokens from the current second are covered too.
+        long cutoff = Math.floorDiv(System.currentTimeMillis(), 1000) + 1;
+        revocationRepository.save(TokenRevocation.builder()
+                .subjectType(subjectType)
+                .subjectId(subjectId)
+                .revokedBefore(toDateTime(cutoff))
+                .build());
+        eventPublisher.publishEvent(new Revocation(subjectType, subjectId, cutoff));
+    }
+
+    private void receive(String payload) {
+        String[] parts = payload.split("\\|");
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed token revocation: {}", payload);
+            return;
+        }
+        apply(new Revocation(RevocationSubjectType.valueOf(parts[0]), Long.valueOf(parts[1]), Long.parseLong(parts[2])));
+    }
+
+    /** Map first, then filter: a reader that sees the filter bit always finds the cutoff. */
+    private void apply(Revocation revocation) {
+        Map<Long, Long> cutoffs = revocation.subjectType() == RevocationSubjectType.USER ? userCutoffs : tenantCutoffs;
+        synchronized (writeLock) {
+            cutoffs.merge(revocation.subjectId(), revocation.cutoff(), Math::max);
+            filter.add(key(revocation.subjectType(), revocation.subjectId()));
+        }
+    }
+
+    private static boolean isBefore(BloomFilter filter, RevocationSubjectType subjectType,
+                                    Map<Long, Long> cutoffs, Long subjectId, long issuedAtSeconds) {
+        if (subjectId == null || !filter.mightContain(key(subjectType, subjectId))) {
+            return false;
+        }
+        Long cutoff = cutoffs.get(subjectId);
+        return cutoff != null && issuedAtSeconds < cutoff;
+    }
+
+    private static long key(RevocationSubjectType subjectType, long subjectId) {
+        return (subjectId << 1) | subjectType.ordinal();
+    }
+
+    /** Cutoffs before this no longer matter: every token issued before them has expired. */
+    private long oldestRelevantCutoff() {
+        long longestLifetime = Math.max(accessTokenExpiration, refreshTokenExpiration);
+        return (System.currentTimeMillis() - longestLifetime) / 1000;
+    }
+
+    private static LocalDateTime toDateTime(long epochSeconds) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds), ZoneId.systemDefault());
+    }
+
+    /**
+     * Fixed-size bloom filter with four probes derived from one 64-bit hash. Adds happen
+     * under the registry's write lock; reads are lock-free.
+     */
+    private static final class BloomFilter {
+
+        private static final int PROBES = 4;
+
+        private final AtomicLongArray words;
+        private final int mask;
+
+        BloomFilter(int bits) {
+            int size = Integer.highestOneBit(Math.max(Long.SIZE, bits));
+            this.words = new AtomicLongArray(size / Long.SIZE);
+            this.mask = size - 1;
+        }
+
+        void add(long key) {
+            long hash = mix(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < PROBES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                words.set(bit >>> 6, words.get(bit >>> 6) | (1L << bit));
+            }
+        }
+
+        boolean mightContain(long key) {
+            long hash = mix(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < PROBES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** SplitMix64 finalizer. */
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
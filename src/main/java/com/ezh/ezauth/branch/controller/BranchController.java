@@ -1,5 +1,7 @@
 package com.ezh.ezauth.branch.controller;
 
+import com.ezh.ezauth.security.Privileges;
+import com.ezh.ezauth.security.RequiresPrivilege;
 import com.ezh.ezauth.branch.dto.BranchDto;
 import com.ezh.ezauth.branch.service.BranchService;
 import com.ezh.ezauth.common.dto.AddressDto;
@@ -23,6 +25,7 @@ public class BranchController {
 
     private final BranchService branchService;
 
+    @RequiresPrivilege(Privileges.SETTINGS_EDIT)
     @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> createBranch(
             @Valid @RequestBody BranchDto.CreateRequest request) throws CommonException {
@@ -30,6 +33,7 @@ public class BranchController {
         return ResponseResource.success(HttpStatus.CREATED, branchService.createBranch(request), "Branch created successfully");
     }
 
+    @RequiresPrivilege(Privileges.SETTINGS_EDIT)
     @PutMapping(value = "/{branchId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> updateBranch(
             @PathVariable Long branchId,
@@ -38,6 +42,7 @@ public class BranchController {
         return ResponseResource.success(HttpStatus.OK, branchService.updateBranch(branchId, request), "Branch updated successfully");
     }
 
+    @RequiresPrivilege(Privileges.SETTINGS_EDIT)
     @DeleteMapping(value = "/{branchId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> deleteBranch(@PathVariable Long branchId) throws CommonException {
         log.info("Deactivating branch ID: {}", branchId);
@@ -68,12 +73,14 @@ public class BranchController {
         return ResponseResource.success(HttpStatus.OK, branchService.getMyBranch(), "Branch fetched successfully");
     }
 
+    @RequiresPrivilege(Privileges.USER_MGMT_VIEW)
     @GetMapping(value = "/{branchId}/users", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<List<BranchDto.UserItem>> getBranchUsers(@PathVariable Long branchId) throws CommonException {
         log.info("Fetching users for branch ID: {}", branchId);
         return ResponseResource.success(HttpStatus.OK, branchService.getBranchUsers(branchId), "Branch users fetched successfully");
     }
 
+    @RequiresPrivilege(Privileges.USER_MGMT_EDIT)
     @PatchMapping(value = "/{branchId}/users/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> assignUserToBranch(
             @PathVariable Long branchId,
@@ -82,6 +89,7 @@ public class BranchController {
         return ResponseResource.success(HttpStatus.OK, branchService.assignUserToBranch(branchId, userId), "User assigned to branch successfully");
     }
 
+    @RequiresPrivilege(Privileges.USER_MGMT_EDIT)
     @DeleteMapping(value = "/{branchId}/users/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> removeUserFromBranch(
             @PathVariable Long branchId,
@@ -90,6 +98,7 @@ public class BranchController {
         return ResponseResource.success(HttpStatus.OK, branchService.removeUserFromBranch(branchId, userId), "User removed from branch successfully");
     }
 
+    @RequiresPrivilege(Privileges.SETTINGS_EDIT)
     @PostMapping(value = "/{branchId}/address", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> addBranchAddress(
             @PathVariable Long branchId,
@@ -98,6 +107,7 @@ public class BranchController {
         return ResponseResource.success(HttpStatus.CREATED, branchService.addBranchAddress(branchId, request), "Branch address added successfully");
     }
 
+    @RequiresPrivilege(Privileges.SETTINGS_EDIT)
     @DeleteMapping(value = "/{branchId}/address/{addressId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> deleteBranchAddress(
             @PathVariable Long branchId,
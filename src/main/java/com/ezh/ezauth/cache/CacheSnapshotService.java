@@ -0,0 +1,410 @@
+package com.ezh.ezauth.cache;
+
+import com.ezh.ezauth.cluster.ClusterEvent;
+import com.ezh.ezauth.cluster.ClusteredCacheManager;
+import com.ezh.ezauth.common.dto.AddressDto;
+import com.ezh.ezauth.common.event.RoleChangedEvent;
+import com.ezh.ezauth.common.event.SubscriptionChangedEvent;
+import com.ezh.ezauth.common.event.TenantChangedEvent;
+import com.ezh.ezauth.common.event.UserChangedEvent;
+import com.ezh.ezauth.tenant.dto.TenantDto;
+import com.ezh.ezauth.user.dto.UserInitResponse;
+import com.ezh.ezauth.user.dto.UserMiniDto;
+import com.ezh.ezauth.user.repository.UserRepository;
+import com.ezh.ezauth.user.repository.projection.UserVersionProjection;
+import com.ezh.ezauth.user.service.PermissionVersionService;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Warm-start snapshot of the hottest cache entries, so a restarted node does not send its
+ * first minutes of /user/init, /user/bulk and tenant reads straight to the database.
+ * <p>
+ * Written on graceful shutdown as a gzipped object stream and read once, in the background,
+ * after startup. Restored entries are re-validated before they are served:
+ * <ul>
+ *     <li>userInitCache keys carry the permission version, and userMiniCache and
+ *     userAddressCache entries are stamped with it, so an entry is kept only while the
+ *     version still matches the database. That lookup also seeds permissionVersionCache.</li>
+ *     <li>tenantDtoCache has no version stamp; it is restored only from a snapshot younger
+ *     than {@code ezauth.cache.snapshot.max-age}, after which refresh-ahead takes over.</li>
+ * </ul>
+ * Invalidations that reach this node while the restore runs are replayed when it ends.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "ezauth.cache.snapshot.enabled", havingValue = "true")
+public class CacheSnapshotService {
+
+    private static final int MAGIC = 0x455A4353;
+    private static final int FORMAT = 1;
+    private static final long NO_STAMP = -1;
+    private static final int VERSION_BATCH = 1000;
+
+    private static final String USER_INIT = "userInitCache";
+    private static final String USER_MINI = "userMiniCache";
+    private static final String USER_ADDRESS = "userAddressCache";
+    private static final String TENANT_DTO = "tenantDtoCache";
+
+    /**
+     * Only the cached DTO graphs, the enums they hold and the JDK types those DTOs are built
+     * from may be read back. List.of/copyOf travel as {@code CollSer} and resolve to an
+     * {@code ImmutableCollections} class; HashMap and the immutable lists check their
+     * backing arrays, hence {@code Map$Entry} and {@code Object}.
+     */
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter("maxdepth=16;maxarray=100000;"
+            + "com.ezh.ezauth.common.dto.*;com.ezh.ezauth.user.dto.*;com.ezh.ezauth.tenant.dto.*;com.ezh.ezauth.subscription.dto.*;"
+            + "com.ezh.ezauth.common.entity.AddressType;com.ezh.ezauth.tenant.entity.BusinessType;"
+            + "com.ezh.ezauth.user.entity.UserType;"
+            + "com.ezh.ezauth.subscription.entity.SubscriptionStatus;com.ezh.ezauth.subscription.entity.PlanType;"
+            + "java.util.HashMap;java.util.LinkedHashMap;java.util.HashSet;java.util.LinkedHashSet;java.util.ArrayList;"
+            + "java.util.CollSer;java.util.ImmutableCollections$*;java.util.Collections$Empty*;java.util.Map$Entry;"
+            + "java.lang.Object;java.lang.String;java.lang.Long;java.lang.Integer;java.lang.Boolean;java.lang.Number;java.lang.Enum;"
+            + "java.math.BigDecimal;java.math.BigInteger;java.time.*;!*");
+
+    private final AsyncLoadingCache<String, UserInitResponse> userInitCache;
+    private final AsyncLoadingCache<Long, UserMiniDto> userMiniCache;
+    private final AsyncLoadingCache<Long, List<AddressDto>> userAddressCache;
+    private final AsyncLoadingCache<Long, TenantDto> tenantDtoCache;
+    private final ClusteredCacheManager cacheManager;
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ezauth.cache.snapshot.path}")
+    private String path;
+
+    /** Per cache. */
+    @Value("${ezauth.cache.snapshot.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${ezauth.cache.snapshot.max-age:5m}")
+    private Duration maxAge;
+
+    private final Set<Long> touchedUsers = ConcurrentHashMap.newKeySet();
+    private final Set<Long> touchedTenants = ConcurrentHashMap.newKeySet();
+    private volatile boolean versionsCleared;
+    private volatile boolean restoring;
+    private volatile boolean restored;
+
+    public boolean isRestored() {
+        return restored;
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void write() {
+        Path file = Path.of(path);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Map<Long, UserMiniDto> minis = hottest(userMiniCache);
+            Map<Long, List<AddressDto>> addresses = hottest(userAddressCache);
+            Set<Long> userIds = new HashSet<>(minis.keySet());
+            userIds.addAll(addresses.keySet());
+            Map<Long, Long> versions = versionsAtShutdown(userIds);
+
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            int written;
+            try (ObjectOutputStream out = new ObjectOutputStream(
+                    new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(4);
+                written = writeSection(out, USER_INIT, hottest(userInitCache), key -> NO_STAMP)
+                        + writeSection(out, USER_MINI, minis, versions::get)
+                        + writeSection(out, USER_ADDRESS, addresses, versions::get)
+                        + writeSection(out, TENANT_DTO, hottest(tenantDtoCache), key -> NO_STAMP);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote {} cache entries to snapshot {}", written, file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write cache snapshot to {}", file, e);
+        } finally {
+            sample.stop(meterRegistry.timer("ezauth.cache.snapshot.write"));
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        Path file = Path.of(path);
+        if (!Files.isRegularFile(file)) {
+            log.info("No cache snapshot at {}; starting cold", file);
+            return;
+        }
+
+        Snapshot snapshot;
+        try {
+            snapshot = read(file);
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            log.warn("Discarding unreadable cache snapshot {}: {}", file, e.toString());
+            return;
+        } finally {
+            // One-shot: a crash loop must not keep restoring an ever older snapshot.
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete cache snapshot {}", file, e);
+            }
+        }
+
+        restoring = true;
+        try {
+            restoreUserEntries(snapshot);
+
+            Duration age = Duration.ofMillis(System.currentTimeMillis() - snapshot.createdAt());
+            List<Entry> tenants = snapshot.section(TENANT_DTO);
+            if (age.compareTo(maxAge) <= 0) {
+                restore(TENANT_DTO, tenants, tenantDtoCache, entry -> true);
+            } else {
+                log.info("Cache snapshot is {}s old; not restoring {} tenants", age.toSeconds(), tenants.size());
+                count(TENANT_DTO, "stale", tenants.size());
+            }
+            restored = true;
+        } catch (RuntimeException e) {
+            log.warn("Cache snapshot restore failed; remaining entries will load on demand", e);
+        } finally {
+            restoring = false;
+            replayInvalidations();
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(ClusterEvent<UserChangedEvent> event) {
+        if (restoring) {
+            touchedUsers.add(event.event().userId());
+        }
+    }
+
+    @EventListener
+    public void onRoleChanged(ClusterEvent<RoleChangedEvent> event) {
+        if (restoring) {
+            versionsCleared = true;
+        }
+    }
+
+    @EventListener
+    public void onTenantChanged(ClusterEvent<TenantChangedEvent> event) {
+        if (restoring) {
+            versionsCleared = true;
+            touchedTenants.add(event.event().tenantId());
+        }
+    }
+
+    @EventListener
+    public void onSubscriptionChanged(ClusterEvent<SubscriptionChangedEvent> event) {
+        if (restoring) {
+            touchedTenants.add(event.event().tenantId());
+        }
+    }
+
+    private void restoreUserEntries(Snapshot snapshot) {
+        List<Entry> inits = snapshot.section(USER_INIT);
+        List<Entry> minis = snapshot.section(USER_MINI);
+        List<Entry> addresses = snapshot.section(USER_ADDRESS);
+
+        Set<Long> userIds = new HashSet<>();
+        inits.forEach(entry -> userIds.add(userIdOf((String) entry.key())));
+        minis.forEach(entry -> userIds.add((Long) entry.key()));
+        addresses.forEach(entry -> userIds.add((Long) entry.key()));
+        Map<Long, Long> versions = currentVersions(userIds);
+
+        org.springframework.cache.Cache versionCache = cacheManager.getCache(PermissionVersionService.VERSION_CACHE);
+        if (versionCache != null) {
+            versions.forEach(versionCache::putIfAbsent);
+        }
+
+        restore(USER_INIT, inits, userInitCache, entry -> {
+            String key = (String) entry.key();
+            Long current = versions.get(userIdOf(key));
+            return current != null && current == Long.parseLong(key.substring(key.indexOf(':') + 1));
+        });
+        Predicate<Entry> stampMatches = entry -> {
+            Long current = versions.get((Long) entry.key());
+            return current != null && current == entry.stamp();
+        };
+        restore(USER_MINI, minis, userMiniCache, stampMatches);
+        restore(USER_ADDRESS, addresses, userAddressCache, stampMatches);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, V> void restore(String name, List<Entry> entries, AsyncCache<K, V> cache, Predicate<Entry> valid) {
+        ConcurrentMap<K, V> map = cache.synchronous().asMap();
+        int kept = 0;
+        for (Entry entry : entries) {
+            // Never overwrite a value loaded since startup; it is at least as fresh.
+            if (valid.test(entry) && map.putIfAbsent((K) entry.key(), (V) entry.value()) == null) {
+                kept++;
+            }
+        }
+        count(name, "restored", kept);
+        count(name, "stale", entries.size() - kept);
+        log.info("Restored {} of {} {} entries from snapshot", kept, entries.size(), name);
+    }
+
+    /** Applies invalidations that may have raced with the restore's own puts. */
+    private void replayInvalidations() {
+        Set<Long> users = drain(touchedUsers);
+        Set<Long> tenants = drain(touchedTenants);
+        for (Long userId : users) {
+            cacheManager.evictLocal(PermissionVersionService.VERSION_CACHE, userId);
+            cacheManager.evictLocal(USER_MINI, userId);
+            cacheManager.evictLocal(USER_ADDRESS, userId);
+        }
+        if (versionsCleared) {
+            versionsCleared = false;
+            cacheManager.clearLocal(PermissionVersionService.VERSION_CACHE);
+        }
+        tenantDtoCache.synchronous().invalidateAll(tenants);
+        if (!users.isEmpty()) {
+            tenantDtoCache.synchronous().asMap().values().removeIf(tenant ->
+                    tenant.getTenantAdmin() != null && users.contains(tenant.getTenantAdmin().getId()));
+        }
+    }
+
+    private Map<Long, Long> currentVersions(Set<Long> userIds) {
+        Map<Long, Long> versions = new HashMap<>(userIds.size());
+        List<Long> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += VERSION_BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + VERSION_BATCH));
+            for (UserVersionProjection row : userRepository.findPermissionVersionsByIdIn(batch)) {
+                versions.put(row.getId(), row.getPermissionVersion());
+            }
+        }
+        return versions;
+    }
+
+    /** Prefers this node's cached versions, which are evicted by the same events as the entries. */
+    private Map<Long, Long> versionsAtShutdown(Set<Long> userIds) {
+        Map<Long, Long> versions = new HashMap<>(userIds.size());
+        Set<Long> missing = new HashSet<>();
+        org.springframework.cache.Cache versionCache = cacheManager.getCache(PermissionVersionService.VERSION_CACHE);
+        for (Long userId : userIds) {
+            Long version = versionCache != null ? versionCache.get(userId, Long.class) : null;
+            if (version != null) {
+                versions.put(userId, version);
+            } else {
+                missing.add(userId);
+            }
+        }
+        versions.putAll(currentVersions(missing));
+        return versions;
+    }
+
+    private <K, V> Map<K, V> hottest(AsyncCache<K, V> cache) {
+        Cache<K, V> sync = cache.synchronous();
+        return sync.policy().eviction()
+                .map(eviction -> eviction.hottest(maxEntries))
+                .orElseGet(() -> Map.copyOf(sync.asMap()));
+    }
+
+    /** Entries without a stamp where one is required are left out. */
+    private static <K> int writeSection(ObjectOutputStream out, String name, Map<K, ?> entries,
+                                        Function<K, Long> stamp) throws IOException {
+        List<Entry> kept = new ArrayList<>(entries.size());
+        entries.forEach((key, value) -> {
+            Long version = stamp.apply(key);
+            if (version != null) {
+                kept.add(new Entry(key, version, value));
+            }
+        });
+        out.writeUTF(name);
+        out.writeInt(kept.size());
+        for (Entry entry : kept) {
+            out.writeObject(entry.key());
+            out.writeLong(entry.stamp());
+            out.writeObject(entry.value());
+        }
+        return kept.size();
+    }
+
+    private static Snapshot read(Path file) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(
+                new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file))))) {
+            in.setObjectInputFilter(FILTER);
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                throw new IOException("Not a cache snapshot or unsupported format");
+            }
+            long createdAt = in.readLong();
+            int sectionCount = in.readInt();
+            Map<String, List<Entry>> sections = new HashMap<>();
+            for (int s = 0; s < sectionCount; s++) {
+                String name = in.readUTF();
+                int size = in.readInt();
+                List<Entry> entries = new ArrayList<>(Math.min(size, VERSION_BATCH));
+                for (int i = 0; i < size; i++) {
+                    entries.add(new Entry(in.readObject(), in.readLong(), in.readObject()));
+                }
+                sections.put(name, entries);
+            }
+            return new Snapshot(createdAt, sections);
+        }
+    }
+
+    private void count(String cache, String outcome, int amount) {
+        Counter.builder("ezauth.cache.snapshot.entries")
+                .tag("cache", cache)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment(amount);
+    }
+
+    private static Long userIdOf(String userInitKey) {
+        return Long.valueOf(userInitKey.substring(0, userInitKey.indexOf(':')));
+    }
+
+    private static Set<Long> drain(Set<Long> source) {
+        Set<Long> drained = new HashSet<>(source);
+        source.removeAll(drained);
+        return drained;
+    }
+
+    private record Entry(Object key, long stamp, Object value) {
+    }
+
+    private record Snapshot(long createdAt, Map<String, List<Entry>> sections) {
+
+        List<Entry> section(String name) {
+            return sections.getOrDefault(name, List.of());
+        }
+    }
+}
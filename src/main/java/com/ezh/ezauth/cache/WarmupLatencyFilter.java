@@ -0,0 +1,87 @@
+package com.ezh.ezauth.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records request latency during the first minutes after startup as
+ * {@code ezauth.warmup.requests}, tagged with the route and whether the cache snapshot
+ * was restored. Comparing its p99 between a cold and a warm rollout shows what the
+ * snapshot saves; after the window the filter steps aside.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WarmupLatencyFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<CacheSnapshotService> snapshotService;
+    private final Duration window;
+
+    private volatile long windowEndsAt = Long.MAX_VALUE;
+
+    public WarmupLatencyFilter(MeterRegistry meterRegistry,
+                               ObjectProvider<CacheSnapshotService> snapshotService,
+                               @Value("${ezauth.metrics.warmup-window:5m}") Duration window) {
+        this.meterRegistry = meterRegistry;
+        this.snapshotService = snapshotService;
+        this.window = window;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        windowEndsAt = System.currentTimeMillis() + window.toMillis();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return System.currentTimeMillis() > windowEndsAt;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Unmatched requests (404s, rejected preflights) would only add noise.
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (route != null) {
+                Timer.builder("ezauth.warmup.requests")
+                        .description("Request latency during the warm-up window after startup")
+                        .tag("uri", route.toString())
+                        .tag("snapshot", snapshotState())
+                        .publishPercentiles(0.5, 0.99)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private String snapshotState() {
+        CacheSnapshotService service = snapshotService.getIfAvailable();
+        if (service == null) {
+            return "disabled";
+        }
+        return service.isRestored() ? "restored" : "cold";
+    }
+}
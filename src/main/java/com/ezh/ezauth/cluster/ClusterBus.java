@@ -0,0 +1,20 @@
+package com.ezh.ezauth.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Fire-and-forget messaging between ezauth instances.
+ * <p>
+ * {@link #publish} delivers to subscribers on this node synchronously and to every other
+ * node asynchronously. Delivery to other nodes is best effort: after a lost connection
+ * subscribers of {@link #RESYNC_TOPIC} are told to drop whatever they may have missed.
+ */
+public interface ClusterBus {
+
+    /** Published locally when messages from other nodes may have been lost. */
+    String RESYNC_TOPIC = "resync";
+
+    void publish(String topic, String payload);
+
+    void subscribe(String topic, Consumer<String> listener);
+}
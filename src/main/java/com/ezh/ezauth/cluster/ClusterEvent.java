@@ -0,0 +1,18 @@
+package com.ezh.ezauth.cluster;
+
+import com.ezh.ezauth.common.event.DomainEvent;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+
+/**
+ * A committed {@link DomainEvent} as delivered on each instance, including the one that
+ * made the change. Listeners can narrow by type, e.g.
+ * {@code @EventListener void on(ClusterEvent<UserChangedEvent> event)}.
+ */
+public record ClusterEvent<T extends DomainEvent>(T event) implements ResolvableTypeProvider {
+
+    @Override
+    public ResolvableType getResolvableType() {
+        return ResolvableType.forClassWithGenerics(ClusterEvent.class, ResolvableType.forInstance(event));
+    }
+}
@@ -0,0 +1,120 @@
+package com.ezh.ezauth.cluster;
+
+import org.springframework.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Local (near) cache whose evictions are replayed on every node.
+ * <p>
+ * An evict or clear applies locally straight away and is broadcast once the surrounding
+ * transaction commits. Evicting again after commit also drops anything a concurrent
+ * reader reloaded from the not-yet-committed state.
+ */
+public class ClusteredCache implements Cache {
+
+    private final Cache delegate;
+    private final ClusteredCacheManager manager;
+
+    ClusteredCache(Cache delegate, ClusteredCacheManager manager) {
+        this.delegate = delegate;
+        this.manager = manager;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return delegate.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return delegate.retrieve(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        afterCommit(() -> manager.broadcastEvict(getName(), key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = delegate.evictIfPresent(key);
+        afterCommit(() -> manager.broadcastEvict(getName(), key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        afterCommit(() -> manager.broadcastClear(getName()));
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        afterCommit(() -> manager.broadcastClear(getName()));
+        return invalidated;
+    }
+
+    /** Evicts on this node only; used when applying a message from the bus. */
+    public void evictLocal(Object key) {
+        delegate.evict(key);
+    }
+
+    public void clearLocal() {
+        delegate.clear();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package com.ezh.ezauth.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps the local cache manager so the named caches invalidate across all instances.
+ * <p>
+ * Each node keeps its own Caffeine copy (the near tier) and reloads misses from the
+ * database; only invalidations travel over the {@link ClusterBus}. Keys are sent as
+ * {@code L<long>} or {@code S<string>}; any other key type falls back to clearing the
+ * cache on the other nodes.
+ */
+@Slf4j
+public class ClusteredCacheManager implements CacheManager {
+
+    static final String TOPIC = "cache";
+    private static final String CLEAR = "*";
+
+    private final CacheManager delegate;
+    private final ClusterBus bus;
+    private final Set<String> clusteredNames;
+    private final Map<String, ClusteredCache> clustered = new ConcurrentHashMap<>();
+
+    public ClusteredCacheManager(CacheManager delegate, ClusterBus bus, Set<String> clusteredNames) {
+        this.delegate = delegate;
+        this.bus = bus;
+        this.clusteredNames = Set.copyOf(clusteredNames);
+        bus.subscribe(TOPIC, this::onMessage);
+        bus.subscribe(ClusterBus.RESYNC_TOPIC, payload -> clearAllLocal());
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = delegate.getCache(name);
+        if (cache == null || !clusteredNames.contains(name)) {
+            return cache;
+        }
+        return clustered.computeIfAbsent(name, n -> new ClusteredCache(cache, this));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /**
+     * Evicts on this node only. For listeners that already run on every node, such as
+     * {@link ClusterEvent} handlers, where broadcasting again would be redundant.
+     */
+    public void evictLocal(String cacheName, Object key) {
+        if (getCache(cacheName) instanceof ClusteredCache cache) {
+            cache.evictLocal(key);
+        }
+    }
+
+    public void clearLocal(String cacheName) {
+        if (getCache(cacheName) instanceof ClusteredCache cache) {
+            cache.clearLocal();
+        }
+    }
+
+    void broadcastEvict(String cacheName, Object key) {
+        String encoded = encodeKey(key);
+        bus.publish(TOPIC, cacheName + "|" + (encoded != null ? encoded : CLEAR));
+    }
+
+    void broadcastClear(String cacheName) {
+        bus.publish(TOPIC, cacheName + "|" + CLEAR);
+    }
+
+    private void onMessage(String payload) {
+        int separator = payload.indexOf('|');
+        if (separator < 0) {
+            log.warn("Ignoring malformed cache invalidation: {}", payload);
+            return;
+        }
+        Cache cache = getCache(payload.substring(0, separator));
+        if (!(cache instanceof ClusteredCache target)) {
+            return;
+        }
+        String key = payload.substring(separator + 1);
+        if (CLEAR.equals(key)) {
+            target.clearLocal();
+        } else {
+            target.evictLocal(decodeKey(key));
+        }
+    }
+
+    private void clearAllLocal() {
+        clusteredNames.forEach(this::clearLocal);
+    }
+
+    private static String encodeKey(Object key) {
+        if (key instanceof Long value) {
+            return "L" + value;
+        }
+        if (key instanceof String value) {
+            return "S" + value;
+        }
+        return null;
+    }
+
+    private static Object decodeKey(String encoded) {
+        return encoded.charAt(0) == 'L' ? (Object) Long.valueOf(encoded.substring(1)) : encoded.substring(1);
+    }
+}
@@ -0,0 +1,71 @@
+package com.ezh.ezauth.cluster;
+
+import com.ezh.ezauth.common.event.DomainEvent;
+import com.ezh.ezauth.common.event.RoleChangedEvent;
+import com.ezh.ezauth.common.event.SubscriptionChangedEvent;
+import com.ezh.ezauth.common.event.TenantChangedEvent;
+import com.ezh.ezauth.common.event.UserChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Fans committed {@link DomainEvent}s out to every instance.
+ * <p>
+ * Events published in a transaction that rolls back are dropped; events published
+ * outside a transaction are relayed immediately. On arrival (the local node included)
+ * they are re-published as {@link ClusterEvent}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DomainEventRelay {
+
+    static final String TOPIC = "domain-event";
+
+    private final ClusterBus clusterBus;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    void init() {
+        clusterBus.subscribe(TOPIC, this::receive);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void relay(DomainEvent event) {
+        clusterBus.publish(TOPIC, encode(event));
+    }
+
+    private void receive(String payload) {
+        DomainEvent event = decode(payload);
+        if (event == null) {
+            log.warn("Ignoring unknown domain event: {}", payload);
+            return;
+        }
+        eventPublisher.publishEvent(new ClusterEvent<>(event));
+    }
+
+    static String encode(DomainEvent event) {
+        return switch (event) {
+            case UserChangedEvent e -> "user|" + e.userId();
+            case RoleChangedEvent e -> "role|" + e.roleId() + "|" + e.tenantId();
+            case TenantChangedEvent e -> "tenant|" + e.tenantId();
+            case SubscriptionChangedEvent e -> "subscription|" + e.tenantId();
+        };
+    }
+
+    static DomainEvent decode(String payload) {
+        String[] parts = payload.split("\\|");
+        return switch (parts[0]) {
+            case "user" -> new UserChangedEvent(Long.valueOf(parts[1]));
+            case "role" -> new RoleChangedEvent(Long.valueOf(parts[1]), Long.valueOf(parts[2]));
+            case "tenant" -> new TenantChangedEvent(Long.valueOf(parts[1]));
+            case "subscription" -> new SubscriptionChangedEvent(Long.valueOf(parts[1]));
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package com.ezh.ezauth.cluster;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process bus for single-node runs and tests ({@code ezauth.cluster.bus=local}).
+ */
+@Component
+@ConditionalOnProperty(name = "ezauth.cluster.bus", havingValue = "local")
+public class LocalClusterBus extends AbstractClusterBus {
+
+    @Override
+    public void publish(String topic, String payload) {
+        dispatch(topic, payload);
+    }
+}
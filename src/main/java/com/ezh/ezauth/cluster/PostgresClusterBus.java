@@ -0,0 +1,213 @@
+package com.ezh.ezauth.cluster;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Cluster bus over PostgreSQL LISTEN/NOTIFY, so no extra infrastructure is needed.
+ * <p>
+ * Notifications are sent from a pooled connection on a single background thread and
+ * received on one dedicated, non-pooled connection. Messages are
+ * {@code nodeId|topic|payload}; a node ignores its own since it already delivered them
+ * locally. If the listening connection drops it is re-opened and a
+ * {@link #RESYNC_TOPIC} message is dispatched locally.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ezauth.cluster.bus", havingValue = "postgres", matchIfMissing = true)
+public class PostgresClusterBus extends AbstractClusterBus {
+
+    /** NOTIFY payloads must stay under 8000 bytes. */
+    private static final int MAX_MESSAGE_BYTES = 7900;
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 30_000;
+    /**
+     * LISTEN only ever reads, so a half-open connection (failover, NAT timeout) would look
+     * like a quiet channel forever. A round trip every interval, bounded by the socket
+     * timeout, turns it into an SQLException and so into a reconnect and resync.
+     */
+    private static final long HEARTBEAT_INTERVAL_MS = 15_000;
+    private static final int SOCKET_TIMEOUT_SECONDS = 30;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "cluster-bus-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${ezauth.cluster.channel:ezauth_cluster}")
+    private String channel;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    private volatile boolean running = true;
+    private volatile Connection listenConnection;
+    private Thread listener;
+
+    public PostgresClusterBus(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalStateException("ezauth.cluster.channel must be a plain lower-case identifier");
+        }
+        listener = new Thread(this::listen, "cluster-bus-listener");
+        listener.setDaemon(true);
+        listener.start();
+        log.info("Cluster bus listening on channel {} as node {}", channel, nodeId);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        sender.shutdown();
+        closeQuietly(listenConnection);
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    @Override
+    public void publish(String topic, String payload) {
+        dispatch(topic, payload);
+
+        String message = nodeId + "|" + topic + "|" + payload;
+        if (message.getBytes(StandardCharsets.UTF_8).length > MAX_MESSAGE_BYTES) {
+            log.error("Dropping cluster message on topic {}: payload too large", topic);
+            return;
+        }
+        try {
+            sender.execute(() -> notify(message));
+        } catch (RejectedExecutionException e) {
+            log.warn("Cluster bus is shutting down; message on topic {} not sent", topic);
+        }
+    }
+
+    private void notify(String message) {
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, message);
+        } catch (RuntimeException e) {
+            log.error("Failed to publish cluster message", e);
+        }
+    }
+
+    private void listen() {
+        long backoff = POLL_TIMEOUT_MS;
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = openListenConnection()) {
+                listenConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (reconnecting) {
+                    log.info("Cluster bus reconnected; requesting local resync");
+                    dispatch(RESYNC_TOPIC, "");
+                }
+                backoff = POLL_TIMEOUT_MS;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                long nextHeartbeat = System.currentTimeMillis() + HEARTBEAT_INTERVAL_MS;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                    if (System.currentTimeMillis() >= nextHeartbeat) {
+                        heartbeat(connection);
+                        nextHeartbeat = System.currentTimeMillis() + HEARTBEAT_INTERVAL_MS;
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cluster bus connection lost, retrying in {} ms: {}", backoff, e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    /** Separate from the pool: LISTEN is bound to the session and must outlive any borrow. */
+    Connection openListenConnection() throws SQLException {
+        return DriverManager.getConnection(url, listenProperties());
+    }
+
+    private static void heartbeat(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(SOCKET_TIMEOUT_SECONDS);
+            statement.execute("SELECT 1");
+        }
+    }
+
+    private Properties listenProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("user", username);
+        properties.setProperty("password", password);
+        properties.setProperty("tcpKeepAlive", "true");
+        properties.setProperty("socketTimeout", String.valueOf(SOCKET_TIMEOUT_SECONDS));
+        return properties;
+    }
+
+    private void receive(String message) {
+        int first = message.indexOf('|');
+        int second = first < 0 ? -1 : message.indexOf('|', first + 1);
+        if (second < 0) {
+            log.warn("Ignoring malformed cluster message");
+            return;
+        }
+        if (nodeId.equals(message.substring(0, first))) {
+            return;
+        }
+        dispatch(message.substring(first + 1, second), message.substring(second + 1));
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // shutting down
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.ezh.ezauth.common.dto;
 
 import lombok.*;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 
 
 @Getter
@@ -9,7 +12,10 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class ApplicationDto {
+public class ApplicationDto implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private Long id;
     private String appName;
     private String appKey;
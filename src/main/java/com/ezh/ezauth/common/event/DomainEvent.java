@@ -0,0 +1,12 @@
+package com.ezh.ezauth.common.event;
+
+/**
+ * Change that can affect what a user may do or see.
+ * <p>
+ * Publish with {@code ApplicationEventPublisher} inside the writing transaction. After
+ * commit it is relayed to every instance and re-published there as a
+ * {@link com.ezh.ezauth.cluster.ClusterEvent}, which is what caches listen for.
+ */
+public sealed interface DomainEvent
+        permits UserChangedEvent, RoleChangedEvent, TenantChangedEvent, SubscriptionChangedEvent {
+}
@@ -0,0 +1,5 @@
+package com.ezh.ezauth.common.event;
+
+/** A role was renamed, re-keyed or deleted. */
+public record RoleChangedEvent(Long roleId, Long tenantId) implements DomainEvent {
+}
@@ -0,0 +1,5 @@
+package com.ezh.ezauth.common.event;
+
+/** The tenant's subscription was created, replaced, cancelled or expired. */
+public record SubscriptionChangedEvent(Long tenantId) implements DomainEvent {
+}
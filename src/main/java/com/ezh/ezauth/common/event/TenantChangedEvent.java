@@ -0,0 +1,5 @@
+package com.ezh.ezauth.common.event;
+
+/** Tenant profile or status changed. */
+public record TenantChangedEvent(Long tenantId) implements DomainEvent {
+}
@@ -0,0 +1,5 @@
+package com.ezh.ezauth.common.event;
+
+/** Profile, status, roles, applications, privileges or addresses of a user changed. */
+public record UserChangedEvent(Long userId) implements DomainEvent {
+}
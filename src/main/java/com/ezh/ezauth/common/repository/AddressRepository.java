@@ -2,12 +2,28 @@ package com.ezh.ezauth.common.repository;
 
 import com.ezh.ezauth.common.entity.Address;
 import com.ezh.ezauth.common.entity.EntityType;
+import com.ezh.ezauth.common.repository.projection.AddressProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AddressRepository extends JpaRepository<Address, Long> {
     List<Address> findByEntityTypeAndEntityId(EntityType entityType, Long entityId);
+
+    @Query("""
+            SELECT a.id AS id, a.entityId AS entityId, a.addressLine1 AS addressLine1,
+                   a.addressLine2 AS addressLine2, a.route AS route, a.area AS area, a.city AS city,
+                   a.state AS state, a.country AS country, a.pinCode AS pinCode,
+                   a.addressType AS addressType, a.isPrimary AS isPrimary
+            FROM Address a
+            WHERE a.entityType = :entityType AND a.entityId IN :entityIds
+            ORDER BY a.entityId, a.id
+            """)
+    List<AddressProjection> findAddressesByEntityIds(@Param("entityType") EntityType entityType,
+                                                     @Param("entityIds") Collection<Long> entityIds);
 }
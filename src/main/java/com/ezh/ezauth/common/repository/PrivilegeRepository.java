@@ -1,9 +1,12 @@
 package com.ezh.ezauth.common.repository;
 
 import com.ezh.ezauth.common.entity.Privilege;
+import com.ezh.ezauth.common.repository.projection.PrivilegeIndexProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +14,13 @@ public interface PrivilegeRepository extends JpaRepository<Privilege, Long> {
     Optional<Privilege> findByModule_IdAndId(Long moduleId, Long privilegeId);
 
     Optional<Privilege> findByPrivilegeKeyAndModuleId(String privilegeKey, Long moduleId);
+
+    @Query("""
+            SELECT p.id AS id, a.appKey AS appKey, m.moduleKey AS moduleKey, p.privilegeKey AS privilegeKey
+            FROM Privilege p
+            JOIN p.module m
+            JOIN m.application a
+            ORDER BY p.id
+            """)
+    List<PrivilegeIndexProjection> findPrivilegeIndex();
 }
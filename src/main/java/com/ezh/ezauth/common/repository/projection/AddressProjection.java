@@ -0,0 +1,35 @@
+package com.ezh.ezauth.common.repository.projection;
+
+import com.ezh.ezauth.common.dto.AddressDto;
+import com.ezh.ezauth.common.entity.AddressType;
+
+public interface AddressProjection {
+    Long getId();
+    Long getEntityId();
+    String getAddressLine1();
+    String getAddressLine2();
+    String getRoute();
+    String getArea();
+    String getCity();
+    String getState();
+    String getCountry();
+    String getPinCode();
+    AddressType getAddressType();
+    Boolean getIsPrimary();
+
+    default AddressDto toDto() {
+        return AddressDto.builder()
+                .id(getId())
+                .addressLine1(getAddressLine1())
+                .addressLine2(getAddressLine2())
+                .route(getRoute())
+                .area(getArea())
+                .city(getCity())
+                .state(getState())
+                .country(getCountry())
+                .pinCode(getPinCode())
+                .type(getAddressType())
+                .isPrimary(getIsPrimary())
+                .build();
+    }
+}
@@ -0,0 +1,8 @@
+package com.ezh.ezauth.common.repository.projection;
+
+public interface PrivilegeIndexProjection {
+    Long getId();
+    String getAppKey();
+    String getModuleKey();
+    String getPrivilegeKey();
+}
@@ -8,6 +8,8 @@ import com.ezh.ezauth.common.entity.Application;
 import com.ezh.ezauth.common.entity.Module;
 import com.ezh.ezauth.common.entity.Privilege;
 import com.ezh.ezauth.common.entity.Role;
+import com.ezh.ezauth.common.event.RoleChangedEvent;
+import com.ezh.ezauth.common.event.TenantChangedEvent;
 import com.ezh.ezauth.common.repository.ApplicationRepository;
 import com.ezh.ezauth.common.repository.ModuleRepository;
 import com.ezh.ezauth.common.repository.RoleRepository;
@@ -21,6 +23,7 @@ import com.ezh.ezauth.utils.common.Status;
 import com.ezh.ezauth.utils.exception.CommonException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -42,6 +45,7 @@ public class CommonService {
     private final RoleRepository roleRepository;
     private final TenantRepository tenantRepository;
     private final UserRoleRepository userRoleRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     @Transactional(readOnly = true)
@@ -145,6 +149,7 @@ public class CommonService {
                 .build();
         app = applicationRepository.save(app);
         tenantRepository.linkApplicationToTenant(tenantId, app.getId());
+        eventPublisher.publishEvent(new TenantChangedEvent(tenantId));
 
         return CommonResponse.builder().status(Status.SUCCESS).message("Application created successfully").build();
     }
@@ -167,6 +172,7 @@ public class CommonService {
             app.setIsActive(dto.getIsActive());
         }
         applicationRepository.save(app);
+        eventPublisher.publishEvent(new TenantChangedEvent(tenantId));
 
         return CommonResponse.builder().status(Status.SUCCESS).message("Application updated successfully").build();
     }
@@ -181,6 +187,7 @@ public class CommonService {
         }
 
         tenantRepository.unlinkApplicationFromTenant(tenantId, appId);
+        eventPublisher.publishEvent(new TenantChangedEvent(tenantId));
 
         return CommonResponse.builder().status(Status.SUCCESS).message("Application removed successfully").build();
     }
@@ -201,6 +208,7 @@ public class CommonService {
         role.setRoleKey(dto.getRoleKey());
         role.setDescription(dto.getDescription());
         roleRepository.save(role);
+        eventPublisher.publishEvent(new RoleChangedEvent(roleId, tenantId));
 
         return CommonResponse.builder().status(Status.SUCCESS).message("Role updated successfully").build();
     }
@@ -222,6 +230,7 @@ public class CommonService {
         }
 
         roleRepository.delete(role);
+        eventPublisher.publishEvent(new RoleChangedEvent(roleId, tenantId));
 
         return CommonResponse.builder().status(Status.SUCCESS).message("Role deleted successfully").build();
     }
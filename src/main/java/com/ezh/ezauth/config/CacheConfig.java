@@ -1,29 +1,162 @@
 package com.ezh.ezauth.config;
 
+import com.ezh.ezauth.cluster.ClusterBus;
+import com.ezh.ezauth.cluster.ClusteredCacheManager;
+import com.ezh.ezauth.common.dto.AddressDto;
+import com.ezh.ezauth.security.VerifiedTokenCache;
+import com.ezh.ezauth.tenant.dto.TenantDto;
+import com.ezh.ezauth.tenant.service.TenantDtoLoader;
+import com.ezh.ezauth.user.dto.UserInitResponse;
+import com.ezh.ezauth.user.dto.UserMiniDto;
+import com.ezh.ezauth.user.service.PermissionService;
+import com.ezh.ezauth.user.service.PermissionVersionService;
+import com.ezh.ezauth.user.service.UserAddressLoader;
+import com.ezh.ezauth.user.service.UserInitLoader;
+import com.ezh.ezauth.user.service.UserMiniLoader;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import org.springframework.cache.CacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    /**
+     * Per-node Caffeine caches. User and permission caches are wrapped so that an
+     * eviction on one node is replayed on every other node via the {@link ClusterBus}.
+     */
     @Bean
-    public CacheManager cacheManager() {
+    public ClusteredCacheManager cacheManager(ClusterBus clusterBus,
+                                              AsyncLoadingCache<String, UserInitResponse> userInitCache,
+                                              AsyncLoadingCache<Long, UserMiniDto> userMiniCache,
+                                              AsyncLoadingCache<Long, List<AddressDto>> userAddressCache,
+                                              AsyncLoadingCache<Long, TenantDto> tenantDtoCache) {
         CaffeineCacheManager manager = new CaffeineCacheManager();
-        manager.registerCustomCache("userInitCache",
-                Caffeine.newBuilder().expireAfterWrite(30, TimeUnit.MINUTES).build());
-        manager.registerCustomCache("userMiniCache",
-                Caffeine.newBuilder().expireAfterWrite(30, TimeUnit.MINUTES).build());
+        manager.registerCustomCache("userInitCache", untyped(userInitCache));
+        manager.registerCustomCache(PermissionVersionService.VERSION_CACHE,
+                Caffeine.newBuilder().expireAfterWrite(10, TimeUnit.MINUTES).maximumSize(100_000).build());
+        manager.registerCustomCache("userMiniCache", untyped(userMiniCache));
+        manager.registerCustomCache("userAddressCache", untyped(userAddressCache));
+        manager.registerCustomCache("tenantDtoCache", untyped(tenantDtoCache));
+        // Evicted explicitly on grant changes; idle-based expiry keeps active users warm.
+        manager.registerCustomCache(PermissionService.PERMISSION_CACHE,
+                Caffeine.newBuilder().expireAfterAccess(2, TimeUnit.HOURS).maximumSize(50_000).build());
         manager.registerCustomCache("otpCache",
                 Caffeine.newBuilder().expireAfterWrite(10, TimeUnit.MINUTES).build());
         manager.registerCustomCache("pwdResetCache",
                 Caffeine.newBuilder().expireAfterWrite(15, TimeUnit.MINUTES).build());
-        return manager;
+        return new ClusteredCacheManager(manager, clusterBus,
+                Set.of("userInitCache", "userMiniCache", "userAddressCache", "tenantDtoCache",
+                        PermissionService.PERMISSION_CACHE, PermissionVersionService.VERSION_CACHE));
+    }
+
+    /**
+     * /user/init payloads keyed by userId:permissionVersion, so superseded entries simply
+     * age out. Concurrent misses share one load; entries older than the refresh interval
+     * are reloaded in the background on their next read while the old value is served.
+     */
+    @Bean
+    public AsyncLoadingCache<String, UserInitResponse> userInitCache(UserInitLoader loader, MeterRegistry meterRegistry,
+            @Qualifier("cacheLoaderExecutor") ExecutorService cacheLoaderExecutor) {
+        AsyncLoadingCache<String, UserInitResponse> cache = Caffeine.newBuilder()
+                .refreshAfterWrite(5, TimeUnit.MINUTES)
+                .expireAfterWrite(30, TimeUnit.MINUTES)
+                .maximumSize(50_000)
+                .executor(cacheLoaderExecutor)
+                .recordStats()
+                .buildAsync(loader);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userInitCache");
+        return cache;
+    }
+
+    /**
+     * Mini user records for /user/bulk. {@code getAll} loads every miss with one query, and
+     * concurrent requests for the same ids share the in-flight load.
+     */
+    @Bean
+    public AsyncLoadingCache<Long, UserMiniDto> userMiniCache(UserMiniLoader loader, MeterRegistry meterRegistry,
+            @Qualifier("cacheLoaderExecutor") ExecutorService cacheLoaderExecutor) {
+        AsyncLoadingCache<Long, UserMiniDto> cache = Caffeine.newBuilder()
+                .refreshAfterWrite(10, TimeUnit.MINUTES)
+                .expireAfterWrite(30, TimeUnit.MINUTES)
+                .maximumSize(100_000)
+                .executor(cacheLoaderExecutor)
+                .recordStats()
+                .buildAsync(loader);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userMiniCache");
+        return cache;
+    }
+
+    /** User addresses, cached apart from userMiniCache so the plain /bulk path stays small. */
+    @Bean
+    public AsyncLoadingCache<Long, List<AddressDto>> userAddressCache(UserAddressLoader loader, MeterRegistry meterRegistry,
+            @Qualifier("cacheLoaderExecutor") ExecutorService cacheLoaderExecutor) {
+        AsyncLoadingCache<Long, List<AddressDto>> cache = Caffeine.newBuilder()
+                .refreshAfterWrite(10, TimeUnit.MINUTES)
+                .expireAfterWrite(30, TimeUnit.MINUTES)
+                .maximumSize(100_000)
+                .executor(cacheLoaderExecutor)
+                .recordStats()
+                .buildAsync(loader);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userAddressCache");
+        return cache;
+    }
+
+    /** Tenant DTOs by id, with the same single-flight loading and refresh-ahead. */
+    @Bean
+    public AsyncLoadingCache<Long, TenantDto> tenantDtoCache(TenantDtoLoader loader, MeterRegistry meterRegistry,
+            @Qualifier("cacheLoaderExecutor") ExecutorService cacheLoaderExecutor) {
+        AsyncLoadingCache<Long, TenantDto> cache = Caffeine.newBuilder()
+                .refreshAfterWrite(5, TimeUnit.MINUTES)
+                .expireAfterWrite(30, TimeUnit.MINUTES)
+                .maximumSize(10_000)
+                .executor(cacheLoaderExecutor)
+                .recordStats()
+                .buildAsync(loader);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tenantDtoCache");
+        return cache;
+    }
+
+    /**
+     * Verified JWT claims keyed by token hash. Entries live until the token's own exp,
+     * capped at {@code jwt.verified-cache.max-size} tokens.
+     */
+    @Bean
+    public VerifiedTokenCache verifiedTokenCache(
+            @Value("${jwt.verified-cache.max-size:10000}") long maxSize,
+            MeterRegistry meterRegistry) {
+        Cache<Long, VerifiedTokenCache.Entry> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new VerifiedTokenCache.TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verifiedTokenCache");
+        return new VerifiedTokenCache(cache);
+    }
+
+    /** Runs cache loads; bounds the loader queries in flight regardless of request concurrency. */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService cacheLoaderExecutor() {
+        return Executors.newFixedThreadPool(8, Thread.ofPlatform().name("cache-loader-", 0).daemon().factory());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AsyncCache<Object, Object> untyped(AsyncCache<?, ?> cache) {
+        return (AsyncCache<Object, Object>) cache;
     }
 }
@@ -1,15 +1,16 @@
 package com.ezh.ezauth.config;
 
+import com.ezh.ezauth.security.BoundedPasswordEncoder;
 import com.ezh.ezauth.security.JwtAuthFilter;
+import com.ezh.ezauth.security.PasswordHashing;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -17,6 +18,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
@@ -24,8 +26,32 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SecurityConfig {
 
-    private final CustomUserDetailsService userDetailsService;
     private final JwtAuthFilter jwtAuthFilter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ezauth.password.algorithm:bcrypt}")
+    private String passwordAlgorithm;
+
+    @Value("${ezauth.password.bcrypt.strength:12}")
+    private int bcryptStrength;
+
+    @Value("${ezauth.password.bcrypt.calibrate:false}")
+    private boolean bcryptCalibrate;
+
+    @Value("${ezauth.password.bcrypt.target-latency:250ms}")
+    private Duration bcryptTargetLatency;
+
+    @Value("${ezauth.password.hash-threads:0}")
+    private int hashThreads;
+
+    @Value("${ezauth.password.queue-capacity:64}")
+    private int hashQueueCapacity;
+
+    @Value("${ezauth.password.max-wait:5s}")
+    private Duration hashMaxWait;
+
+    @Value("${ezauth.password.retry-after-seconds:2}")
+    private long hashRetryAfterSeconds;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -47,6 +73,7 @@ public class SecurityConfig {
                                 "/api/v1/auth/reset-password",
                                 "/api/v1/auth/resend-otp",
                                 "/api/v1/userrequests/mkt",
+                                "/.well-known/jwks.json",
                                 "/actuator/**",
                                 "/swagger-ui/**",
                                 "/swagger-ui.html",
@@ -92,17 +119,19 @@ public class SecurityConfig {
         return source;
     }
 
-    @Bean
-    public AuthenticationManager authManager(HttpSecurity http) throws Exception {
-        AuthenticationManagerBuilder authBuilder =
-                http.getSharedObject(AuthenticationManagerBuilder.class);
-        authBuilder.userDetailsService(userDetailsService)
-                .passwordEncoder(passwordEncoder());
-        return authBuilder.build();
-    }
-
+    /**
+     * Prefixed hashes ({@link PasswordHashing}) on their own bounded pool, so sign-in bursts
+     * cannot take every request thread and core. {@code ezauth.password.hash-threads=0}
+     * means one per available processor. {@code bcrypt.calibrate=true} only logs the cost
+     * that would meet {@code bcrypt.target-latency} here; {@code bcrypt.strength} is what is used.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        if (bcryptCalibrate) {
+            PasswordHashing.calibrateBcryptStrength(bcryptTargetLatency, bcryptStrength);
+        }
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(PasswordHashing.delegating(passwordAlgorithm, bcryptStrength), threads,
+                hashQueueCapacity, hashMaxWait, hashRetryAfterSeconds, meterRegistry);
     }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.ezh.ezauth.config;
+
+import com.ezh.ezauth.security.PrivilegeInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final PrivilegeInterceptor privilegeInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(privilegeInterceptor).addPathPatterns("/api/**");
+    }
+}
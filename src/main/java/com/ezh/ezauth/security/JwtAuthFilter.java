@@ -1,5 +1,6 @@
 package com.ezh.ezauth.security;
 
+import com.ezh.ezauth.auth.service.TokenRevocationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,7 +17,7 @@ import java.io.IOException;
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserContext userContext;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -34,39 +35,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         try {
             String token = authHeader.substring(7);
 
-            if (jwtTokenProvider.validateToken(token) && jwtTokenProvider.isAccessToken(token)) {
-                // Extract Long IDs
-                Long userId = jwtTokenProvider.getUserIdFromToken(token);
-                Long tenantId = jwtTokenProvider.getTenantIdFromToken(token);
+            // Single signature verification; every claim comes from the same parsed token.
+            VerifiedToken verified = jwtTokenProvider.parseToken(token);
 
-                // Extract UUIDs (Assuming your JwtTokenProvider has these methods)
-                String userUuid = jwtTokenProvider.getUserUuidFromToken(token);
-                String tenantUuid = jwtTokenProvider.getTenantUuidFromToken(token);
-
-                String email = jwtTokenProvider.getEmailFromToken(token);
-                String userType = jwtTokenProvider.getUserTypeFromToken(token);
-                String roles = jwtTokenProvider.getRolesFromToken(token);
-                String accountScope = jwtTokenProvider.getAccountScopeFromToken(token);
-
-                userContext.setUserId(userId);
-                userContext.setUserUuid(userUuid);
-                userContext.setEmail(email);
-                userContext.setTenantId(tenantId);
-                userContext.setTenantUuid(tenantUuid);
-                userContext.setUserType(userType);
-                userContext.setRoles(roles);
-                userContext.setAccountScope(accountScope);
-
-                JwtAuthentication authentication = new JwtAuthentication(
-                        userId,
-                        userUuid,
-                        email,
-                        tenantId,
-                        tenantUuid,
-                        userType,
-                        roles,
-                        accountScope
-                );
+            // Revoked tokens stay unauthenticated, like invalid ones.
+            if (verified.isAccessToken() && !tokenRevocationRegistry.isRevoked(verified)) {
+                // The verified token is the request principal; nothing else is populated.
+                JwtAuthentication authentication = new JwtAuthentication(verified);
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
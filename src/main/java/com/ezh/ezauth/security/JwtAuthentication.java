@@ -1,47 +1,68 @@
 package com.ezh.ezauth.security;
 
-import lombok.Getter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.stream.Collectors;
+import java.util.List;
 
-@Getter
+/**
+ * Authentication built once per request by {@link JwtAuthFilter}. All request
+ * identity is read from the immutable {@link VerifiedToken} it wraps.
+ */
 public class JwtAuthentication extends AbstractAuthenticationToken {
 
-    private final Long userId;
-    private final String userUuid;
-    private final String email;
-    private final Long tenantId;
-    private final String tenantUuid;
-    private final String userType;
-    private final String roles;
-    private final String accountScope;
-
-    public JwtAuthentication(Long userId, String userUuid, String email, Long tenantId, String tenantUuid, String userType, String roles, String accountScope) {
-        super(parseAuthorities(roles));
-        this.userId = userId;
-        this.userUuid = userUuid;
-        this.email = email;
-        this.tenantId = tenantId;
-        this.tenantUuid = tenantUuid;
-        this.userType = userType;
-        this.roles = roles;
-        this.accountScope = accountScope;
+    private final VerifiedToken token;
+    private final List<GrantedAuthority> authorities;
+
+    public JwtAuthentication(VerifiedToken token) {
+        // Authorities are served from the interned list below rather than copied by the superclass.
+        super(AuthorityUtils.NO_AUTHORITIES);
+        this.token = token;
+        this.authorities = RoleAuthorities.forRoles(token.getRoles());
         setAuthenticated(true);
     }
 
-    private static Collection<? extends GrantedAuthority> parseAuthorities(String roles) {
-        if (roles == null || roles.isEmpty()) {
-            return Collections.emptyList();
-        }
-        return Arrays.stream(roles.split(","))
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.trim()))
-                .collect(Collectors.toList());
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public VerifiedToken getToken() {
+        return token;
+    }
+
+    public Long getUserId() {
+        return token.getUserId();
+    }
+
+    public String getUserUuid() {
+        return token.getUserUuid();
+    }
+
+    public String getEmail() {
+        return token.getEmail();
+    }
+
+    public Long getTenantId() {
+        return token.getTenantId();
+    }
+
+    public String getTenantUuid() {
+        return token.getTenantUuid();
+    }
+
+    public String getUserType() {
+        return token.getUserType();
+    }
+
+    public String getRoles() {
+        return token.getRoles();
+    }
+
+    public String getAccountScope() {
+        return token.getAccountScope();
     }
 
     @Override
@@ -51,6 +72,6 @@ public class JwtAuthentication extends AbstractAuthenticationToken {
 
     @Override
     public Object getPrincipal() {
-        return userId;
+        return token.getUserId();
     }
-}
\ No newline at end of file
+}
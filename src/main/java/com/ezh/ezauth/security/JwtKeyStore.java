@@ -0,0 +1,157 @@
+package com.ezh.ezauth.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asymmetric signing keys indexed by kid, plus the JWKS document built from them.
+ * Everything is resolved once at startup and served from memory.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtKeyStore {
+
+    private final JwtSigningProperties properties;
+
+    private Map<String, SigningKey> keysByKid = Collections.emptyMap();
+    private SigningKey activeKey;
+    private Map<String, Object> jwks = Map.of("keys", List.of());
+
+    public record SigningKey(String kid, SignatureAlgorithm algorithm, PublicKey publicKey, PrivateKey privateKey) {
+    }
+
+    @PostConstruct
+    void init() {
+        Map<String, SigningKey> keys = new LinkedHashMap<>();
+        List<Map<String, Object>> jwkList = new ArrayList<>();
+
+        for (JwtSigningProperties.Key config : properties.getKeys()) {
+            SignatureAlgorithm algorithm = SignatureAlgorithm.forName(config.getAlgorithm());
+            if (algorithm != SignatureAlgorithm.RS256 && algorithm != SignatureAlgorithm.ES256) {
+                throw new IllegalStateException("Unsupported JWT key algorithm for kid " + config.getKid() + ": " + algorithm);
+            }
+            String keyFactoryAlgorithm = algorithm.isRsa() ? "RSA" : "EC";
+            PublicKey publicKey = readPublicKey(config.getPublicKey(), keyFactoryAlgorithm);
+            PrivateKey privateKey = config.getPrivateKey() == null || config.getPrivateKey().isBlank()
+                    ? null
+                    : readPrivateKey(config.getPrivateKey(), keyFactoryAlgorithm);
+
+            keys.put(config.getKid(), new SigningKey(config.getKid(), algorithm, publicKey, privateKey));
+            jwkList.add(toJwk(config.getKid(), algorithm, publicKey));
+        }
+
+        this.keysByKid = Collections.unmodifiableMap(keys);
+        this.jwks = Map.of("keys", List.copyOf(jwkList));
+
+        if (isAsymmetric()) {
+            SigningKey active = keysByKid.get(properties.getActiveKid());
+            if (active == null || active.privateKey() == null) {
+                throw new IllegalStateException("jwt.signing.active-kid must reference a configured key with a private key");
+            }
+            if (!active.algorithm().getValue().equals(properties.getAlgorithm())) {
+                throw new IllegalStateException("Active JWT key " + active.kid() + " is not a " + properties.getAlgorithm() + " key");
+            }
+            this.activeKey = active;
+        }
+        log.info("Loaded {} JWT signing keys (algorithm={}, activeKid={})",
+                keysByKid.size(), properties.getAlgorithm(), activeKey != null ? activeKey.kid() : null);
+    }
+
+    public boolean isAsymmetric() {
+        return !SignatureAlgorithm.HS256.getValue().equals(properties.getAlgorithm());
+    }
+
+    public SigningKey getActiveKey() {
+        return activeKey;
+    }
+
+    public SigningKey findByKid(String kid) {
+        return keysByKid.get(kid);
+    }
+
+    public Map<String, Object> getJwks() {
+        return jwks;
+    }
+
+    private static Map<String, Object> toJwk(String kid, SignatureAlgorithm algorithm, PublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm.getValue());
+        if (publicKey instanceof RSAPublicKey rsa) {
+            jwk.put("kty", "RSA");
+            jwk.put("n", base64Url(unsigned(rsa.getModulus())));
+            jwk.put("e", base64Url(unsigned(rsa.getPublicExponent())));
+        } else if (publicKey instanceof ECPublicKey ec) {
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", base64Url(fixedLength(ec.getW().getAffineX(), 32)));
+            jwk.put("y", base64Url(fixedLength(ec.getW().getAffineY(), 32)));
+        }
+        return Collections.unmodifiableMap(jwk);
+    }
+
+    private static PublicKey readPublicKey(String encoded, String algorithm) {
+        try {
+            return KeyFactory.getInstance(algorithm).generatePublic(new X509EncodedKeySpec(decodePem(encoded)));
+        } catch (Exception e) {
+            throw new IllegalStateException("Invalid " + algorithm + " public key for JWT signing", e);
+        }
+    }
+
+    private static PrivateKey readPrivateKey(String encoded, String algorithm) {
+        try {
+            return KeyFactory.getInstance(algorithm).generatePrivate(new PKCS8EncodedKeySpec(decodePem(encoded)));
+        } catch (Exception e) {
+            throw new IllegalStateException("Invalid " + algorithm + " private key for JWT signing", e);
+        }
+    }
+
+    private static byte[] decodePem(String value) {
+        String base64 = value.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static byte[] unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] trimmed = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, trimmed, 0, trimmed.length);
+            return trimmed;
+        }
+        return bytes;
+    }
+
+    private static byte[] fixedLength(BigInteger value, int length) {
+        byte[] bytes = unsigned(value);
+        if (bytes.length == length) {
+            return bytes;
+        }
+        byte[] padded = new byte[length];
+        System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+        return padded;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,46 @@
+package com.ezh.ezauth.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Signing configuration for issued JWTs.
+ * <p>
+ * Rotation: add the new key to {@code keys} first, so it is published in the JWKS for
+ * at least {@code jwksMaxAgeSeconds}. Then point {@code activeKid} at it. Leave the old
+ * key (its public half is enough) in the list until the last token it signed has expired.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "jwt.signing")
+public class JwtSigningProperties {
+
+    /** HS256 (shared jwt.secret), RS256 or ES256. */
+    private String algorithm = "HS256";
+
+    /** kid of the key used to sign new tokens when algorithm is RS256/ES256. */
+    private String activeKid;
+
+    /** Accept tokens without a kid, verified with jwt.secret, while clients migrate off HS256. */
+    private boolean acceptLegacyHmac = true;
+
+    /** Cache-Control max-age for /.well-known/jwks.json. */
+    private long jwksMaxAgeSeconds = 86400;
+
+    private List<Key> keys = new ArrayList<>();
+
+    @Data
+    public static class Key {
+        private String kid;
+        /** RS256 or ES256. */
+        private String algorithm;
+        /** X.509 SubjectPublicKeyInfo, PEM or base64 DER. */
+        private String publicKey;
+        /** PKCS#8, PEM or base64 DER. Only needed for the active key. */
+        private String privateKey;
+    }
+}
@@ -1,22 +1,35 @@
 package com.ezh.ezauth.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.util.Date;
 import java.util.Map;
 
 @Component
+@RequiredArgsConstructor
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret}")
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final JwtKeyStore jwtKeyStore;
+    private final JwtSigningProperties signingProperties;
+
+    @Value("${jwt.secret:}")
     private String jwtSecret;
 
     @Value("${jwt.access-token-expiration:3600000}") // 1 hour default
@@ -25,105 +38,174 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-token-expiration:604800000}") // 7 days default
     private Long refreshTokenExpiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.claims.profile:STANDARD}")
+    private ClaimsProfile claimsProfile;
+
+    /**
+     * STANDARD uses the original verbose claim names; COMPACT uses short names and numeric ids.
+     * Both are always accepted when parsing, so the profile can be switched without logouts.
+     */
+    public enum ClaimsProfile {
+        STANDARD,
+        COMPACT
+    }
+
+    // Built once at startup; both are immutable and thread-safe.
+    private SecretKey hmacKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        if (!jwtKeyStore.isAsymmetric() || signingProperties.isAcceptLegacyHmac()) {
+            if (jwtSecret == null || jwtSecret.isBlank()) {
+                throw new IllegalStateException("jwt.secret is required for HS256 signing or legacy token verification");
+            }
+            this.hmacKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        }
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveVerificationKey(header);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Tokens with a kid are verified with that published key; tokens without one are
+     * legacy HS256 tokens. The header alg must match the key so algorithms can't be swapped.
+     */
+    private Key resolveVerificationKey(JwsHeader<?> header) {
+        String kid = header.getKeyId();
+        if (kid == null) {
+            if (hmacKey == null || !SignatureAlgorithm.HS256.getValue().equals(header.getAlgorithm())) {
+                throw new UnsupportedJwtException("Token has no key id");
+            }
+            return hmacKey;
+        }
+        JwtKeyStore.SigningKey key = jwtKeyStore.findByKid(kid);
+        if (key == null || !key.algorithm().getValue().equals(header.getAlgorithm())) {
+            throw new UnsupportedJwtException("Unknown signing key: " + kid);
+        }
+        return key.publicKey();
+    }
+
+    private JwtBuilder sign(JwtBuilder builder) {
+        if (!jwtKeyStore.isAsymmetric()) {
+            return builder.signWith(hmacKey, SignatureAlgorithm.HS256);
+        }
+        JwtKeyStore.SigningKey active = jwtKeyStore.getActiveKey();
+        return builder
+                .setHeaderParam(JwsHeader.KEY_ID, active.kid())
+                .signWith(active.privateKey(), active.algorithm());
     }
 
     /**
-     * Generate Access Token - Now includes UUIDs
+     * Generate Access Token - Now includes UUIDs and the refresh-token family it was issued with
      */
-    public String generateAccessToken(Long userId, String userUuid, String email, Long tenantId, String tenantUuid, String userType, String roles, String accountScope) {
+    public String generateAccessToken(Long userId, String userUuid, String email, Long tenantId, String tenantUuid, String userType, String roles, String accountScope, String familyId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + accessTokenExpiration);
 
-        return Jwts.builder()
+        Map<String, Object> claims = claimsProfile == ClaimsProfile.COMPACT
+                ? TokenClaims.compactAccess(userUuid, email, tenantId, tenantUuid, userType, roles, accountScope, familyId)
+                : TokenClaims.standardAccess(userUuid, email, tenantId, tenantUuid, userType, roles, accountScope, familyId);
+
+        return sign(Jwts.builder()
                 .setSubject(String.valueOf(userId))
-                .addClaims(Map.of(
-                        "userUuid", userUuid,
-                        "email", email,
-                        "tenantId", String.valueOf(tenantId),
-                        "tenantUuid", tenantUuid,
-                        "userType", userType,
-                        "roles", roles,
-                        "type", "ACCESS",
-                        "accountScope", accountScope
-                ))
+                .addClaims(claims)
                 .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setExpiration(expiryDate))
                 .compact();
     }
 
     /**
-     * Generate Refresh Token
+     * Generate Refresh Token; tokenId and familyId come from the refresh-token store
      */
-    public String generateRefreshToken(Long userId) {
+    public String generateRefreshToken(Long userId, String tokenId, String familyId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + refreshTokenExpiration);
 
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .setSubject(String.valueOf(userId))
-                .addClaims(Map.of("type", "REFRESH"))
+                .setId(tokenId)
+                .addClaims(claimsProfile == ClaimsProfile.COMPACT
+                        ? TokenClaims.compactRefresh(familyId)
+                        : TokenClaims.standardRefresh(familyId))
                 .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setExpiration(expiryDate))
                 .compact();
     }
 
-    // Extraction Methods
+    /**
+     * Verify the signature and expiry once and return every claim we use.
+     * Repeat tokens are served from {@link VerifiedTokenCache} without any crypto.
+     * Throws {@link JwtException} or {@link IllegalArgumentException} for invalid tokens.
+     */
+    public VerifiedToken parseToken(String token) {
+        VerifiedToken cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        VerifiedToken verified = TokenClaims.decode(getClaims(token));
+        verifiedTokenCache.put(token, verified);
+        return verified;
+    }
+
+    // Extraction Methods (all served from the single cached parse)
 
     public Long getUserIdFromToken(String token) {
-        return Long.valueOf(getClaims(token).getSubject());
+        return parseToken(token).getUserId();
     }
 
     public String getUserUuidFromToken(String token) {
-        return getClaims(token).get("userUuid", String.class);
+        return parseToken(token).getUserUuid();
     }
 
     public Long getTenantIdFromToken(String token) {
-        String tenantId = getClaims(token).get("tenantId", String.class);
-        return tenantId != null ? Long.valueOf(tenantId) : null;
+        return parseToken(token).getTenantId();
     }
 
     public String getTenantUuidFromToken(String token) {
-        return getClaims(token).get("tenantUuid", String.class);
+        return parseToken(token).getTenantUuid();
     }
 
     public String getEmailFromToken(String token) {
-        return getClaims(token).get("email", String.class);
+        return parseToken(token).getEmail();
     }
 
     public String getTokenType(String token) {
-        return getClaims(token).get("type", String.class);
+        return parseToken(token).getType();
     }
 
     public String getUserTypeFromToken(String token) {
-        return getClaims(token).get("userType", String.class);
+        return parseToken(token).getUserType();
     }
 
     public String getRolesFromToken(String token) {
-        return getClaims(token).get("roles", String.class);
+        return parseToken(token).getRoles();
     }
 
     public String getAccountScopeFromToken(String token) {
-        return getClaims(token).get("accountScope", String.class);
+        return parseToken(token).getAccountScope();
     }
 
     // Validation Methods
 
     public boolean isTokenExpired(String token) {
         try {
-            Date expiration = getClaims(token).getExpiration();
-            return expiration.before(new Date());
-        } catch (JwtException e) {
+            return parseToken(token).getExpiresAt().before(new Date());
+        } catch (JwtException | IllegalArgumentException e) {
             return true;
         }
     }
 
     public boolean validateToken(String token) {
         try {
-            getClaims(token);
-            return !isTokenExpired(token);
+            // The parser already rejects expired tokens, so one (cached) parse is enough.
+            parseToken(token);
+            return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
@@ -131,25 +213,21 @@ public class JwtTokenProvider {
 
     public boolean isAccessToken(String token) {
         try {
-            return "ACCESS".equals(getTokenType(token));
-        } catch (JwtException e) {
+            return parseToken(token).isAccessToken();
+        } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
 
     public boolean isRefreshToken(String token) {
         try {
-            return "REFRESH".equals(getTokenType(token));
-        } catch (JwtException e) {
+            return parseToken(token).isRefreshToken();
+        } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
 
     private Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.ezh.ezauth.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stored password formats.
+ * <p>
+ * New hashes are written as {@code {id}hash} by a {@link DelegatingPasswordEncoder}, so the
+ * algorithm and its cost can change without invalidating existing hashes; stale ones are
+ * rehashed on the next successful sign-in. Hashes from before the prefix was introduced are
+ * plain bcrypt and still match. SSO-only accounts store {@link #SSO_ONLY}, which never
+ * matches and costs nothing to check.
+ */
+@Slf4j
+public final class PasswordHashing {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+    public static final String SSO_ONLY = "{sso}";
+
+    /** What Google sign-ups used to be hashed from; must never authenticate anyone. */
+    private static final String LEGACY_SSO_PASSWORD = "GOOGLE_AUTH_USER";
+
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+
+    private PasswordHashing() {
+    }
+
+    public static PasswordEncoder delegating(String algorithm, int bcryptStrength) {
+        // "sso" is a stored-format id only; nothing may be hashed with it.
+        if (!BCRYPT.equals(algorithm) && !ARGON2.equals(algorithm)) {
+            throw new IllegalStateException("Unsupported ezauth.password.algorithm: " + algorithm
+                    + " (expected " + BCRYPT + " or " + ARGON2 + ")");
+        }
+        if (bcryptStrength < MIN_BCRYPT_STRENGTH || bcryptStrength > MAX_BCRYPT_STRENGTH) {
+            throw new IllegalStateException("ezauth.password.bcrypt.strength must be between "
+                    + MIN_BCRYPT_STRENGTH + " and " + MAX_BCRYPT_STRENGTH + ", was " + bcryptStrength);
+        }
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put("sso", new SsoOnlyPasswordEncoder());
+        if (ClassUtils.isPresent("org.bouncycastle.crypto.generators.Argon2BytesGenerator", null)) {
+            encoders.put(ARGON2, Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        } else if (ARGON2.equals(algorithm)) {
+            throw new IllegalStateException("ezauth.password.algorithm=argon2 needs org.bouncycastle:bcprov on the classpath");
+        }
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    /**
+     * Highest bcrypt cost whose hash still takes no longer than {@code target} on this
+     * machine, never below the previous default of 10. Each step doubles the work, so one
+     * median timing at the minimum cost is enough to extrapolate.
+     * <p>
+     * Only a suggestion for {@code ezauth.password.bcrypt.strength}: the cost itself is
+     * always configured, since nodes calibrating on their own would disagree and keep
+     * rehashing each other's passwords.
+     */
+    public static int calibrateBcryptStrength(Duration target, int configuredStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH);
+        probe.encode("calibration-warmup");
+        long[] samples = new long[3];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration-" + i);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        long median = Math.max(1, samples[1]);
+
+        int strength = MIN_BCRYPT_STRENGTH;
+        long estimate = median;
+        while (strength < MAX_BCRYPT_STRENGTH && estimate * 2 <= target.toNanos()) {
+            estimate *= 2;
+            strength++;
+        }
+        log.info("bcrypt cost {} meets the {} ms target on this node (~{} ms per hash); configured cost is {}",
+                strength, target.toMillis(), estimate / 1_000_000, configuredStrength);
+        return strength;
+    }
+
+    public static boolean isSsoOnly(String encodedPassword) {
+        return SSO_ONLY.equals(encodedPassword);
+    }
+
+    /** True when a check can be answered "no" without hashing anything. */
+    static boolean cannotMatch(CharSequence rawPassword, String encodedPassword) {
+        return encodedPassword == null
+                || isSsoOnly(encodedPassword)
+                || (rawPassword != null && LEGACY_SSO_PASSWORD.contentEquals(rawPassword));
+    }
+
+    private static final class SsoOnlyPasswordEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            throw new UnsupportedOperationException("SSO-only accounts have no password to hash");
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return false;
+        }
+    }
+}
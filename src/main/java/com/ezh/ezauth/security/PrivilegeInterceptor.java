@@ -0,0 +1,85 @@
+package com.ezh.ezauth.security;
+
+import com.ezh.ezauth.user.service.PermissionService;
+import com.ezh.ezauth.utils.UserContextUtil;
+import com.ezh.ezauth.utils.exception.CommonException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces {@link RequiresPrivilege} before the handler runs. Once a user's snapshot is
+ * cached a check is a map lookup and a bit test; each check is timed as
+ * {@code ezauth.privilege.check} tagged with the privilege and outcome.
+ */
+@Component
+@RequiredArgsConstructor
+public class PrivilegeInterceptor implements HandlerInterceptor {
+
+    private final PermissionService permissionService;
+    private final MeterRegistry meterRegistry;
+
+    // Annotation lookup is reflective; resolve it once per handler method.
+    private final Map<Method, Optional<String>> requiredByMethod = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws CommonException {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Optional<String> required = requiredByMethod.computeIfAbsent(handlerMethod.getMethod(),
+                method -> Optional.ofNullable(findRequiredPrivilege(handlerMethod)));
+        if (required.isEmpty()) {
+            return true;
+        }
+
+        String privilege = required.get();
+        long start = System.nanoTime();
+        boolean granted = isGranted(privilege);
+        timer(privilege, granted).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (!granted) {
+            throw new CommonException("Access denied", HttpStatus.FORBIDDEN);
+        }
+        return true;
+    }
+
+    private boolean isGranted(String privilege) throws CommonException {
+        if (UserContextUtil.isPlatformUser()) {
+            return true;
+        }
+        Long userId = UserContextUtil.getUserIdOrThrow();
+        return permissionService.passesPrivilegeCheck(userId, privilege);
+    }
+
+    private Timer timer(String privilege, boolean granted) {
+        String outcome = granted ? "granted" : "denied";
+        return timers.computeIfAbsent(privilege + "|" + outcome, key -> Timer.builder("ezauth.privilege.check")
+                .description("Time to evaluate @RequiresPrivilege")
+                .tag("privilege", privilege)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private static String findRequiredPrivilege(HandlerMethod handlerMethod) {
+        RequiresPrivilege annotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), RequiresPrivilege.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RequiresPrivilege.class);
+        }
+        return annotation != null ? annotation.value() : null;
+    }
+}
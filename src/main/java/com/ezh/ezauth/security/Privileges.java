@@ -0,0 +1,17 @@
+package com.ezh.ezauth.security;
+
+/**
+ * {@link RequiresPrivilege} keys for the modules seeded for EZH_INV_APP (see V8__init_db.sql).
+ * Keys are application-relative: they are checked in whichever of the tenant's applications
+ * define the module, and do not apply to tenants whose applications have no such module.
+ */
+public final class Privileges {
+
+    public static final String USER_MGMT_VIEW = "EZH_INV_USER_MGMT:EZH_INV_USER_MGMT_VIEW";
+    public static final String USER_MGMT_EDIT = "EZH_INV_USER_MGMT:EZH_INV_USER_MGMT_EDIT";
+    public static final String SETTINGS_VIEW = "EZH_INV_SETTINGS:EZH_INV_SETTINGS_VIEW";
+    public static final String SETTINGS_EDIT = "EZH_INV_SETTINGS:EZH_INV_SETTINGS_EDIT";
+
+    private Privileges() {
+    }
+}
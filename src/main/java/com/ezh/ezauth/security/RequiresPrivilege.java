@@ -0,0 +1,21 @@
+package com.ezh.ezauth.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Restricts a controller method (or every method of a controller) to users holding
+ * the given privilege, written as {@code "MODULE_KEY:PRIVILEGE_KEY"}. The key is resolved
+ * in each of the tenant's applications; tenants without the module are not restricted.
+ * Platform-scope users are not subject to tenant privileges and always pass.
+ * Enforced by {@link PrivilegeInterceptor} against the cached permission snapshot.
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequiresPrivilege {
+    String value();
+}
@@ -0,0 +1,45 @@
+package com.ezh.ezauth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Interned authority lists keyed by the raw roles claim. The distinct role strings
+ * across tenants are few, so identical claims share one immutable list and building
+ * a {@link JwtAuthentication} allocates nothing on a hit.
+ */
+public final class RoleAuthorities {
+
+    private static final int MAX_ENTRIES = 4096;
+
+    private static final Cache<String, List<GrantedAuthority>> INTERNED = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .build();
+
+    private RoleAuthorities() {
+    }
+
+    public static List<GrantedAuthority> forRoles(String roles) {
+        if (roles == null || roles.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return INTERNED.get(roles, RoleAuthorities::parse);
+    }
+
+    private static List<GrantedAuthority> parse(String roles) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (String role : roles.split(",")) {
+            String trimmed = role.trim();
+            if (!trimmed.isEmpty()) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + trimmed));
+            }
+        }
+        return List.copyOf(authorities);
+    }
+}
@@ -0,0 +1,144 @@
+package com.ezh.ezauth.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.UnsupportedJwtException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Claim names and encoders for the two access-token profiles.
+ * <p>
+ * STANDARD is the original layout. COMPACT uses two/three-letter names, keeps
+ * tenantId numeric instead of stringified, and shortens the token type to one letter.
+ * Roles stay a comma-joined key list in both profiles: role ids are tenant-scoped
+ * rows, and resolving them back to keys would put a lookup on the filter path.
+ */
+final class TokenClaims {
+
+    // STANDARD
+    static final String USER_UUID = "userUuid";
+    static final String EMAIL = "email";
+    static final String TENANT_ID = "tenantId";
+    static final String TENANT_UUID = "tenantUuid";
+    static final String USER_TYPE = "userType";
+    static final String ROLES = "roles";
+    static final String TYPE = "type";
+    static final String ACCOUNT_SCOPE = "accountScope";
+
+    // Both profiles; refresh-token family, also carried by access tokens for sign-out
+    static final String FAMILY_ID = "fid";
+
+    // COMPACT; presence of C_TYPE marks a compact token
+    static final String C_USER_UUID = "uu";
+    static final String C_EMAIL = "em";
+    static final String C_TENANT_ID = "tid";
+    static final String C_TENANT_UUID = "tu";
+    static final String C_USER_TYPE = "ut";
+    static final String C_ROLES = "ro";
+    static final String C_TYPE = "tk";
+    static final String C_ACCOUNT_SCOPE = "as";
+    static final String C_ACCESS = "A";
+    static final String C_REFRESH = "R";
+
+    private TokenClaims() {
+    }
+
+    static Map<String, Object> standardAccess(String userUuid, String email, Long tenantId, String tenantUuid,
+                                              String userType, String roles, String accountScope, String familyId) {
+        Map<String, Object> claims = new HashMap<>();
+        putIfPresent(claims, USER_UUID, userUuid);
+        putIfPresent(claims, EMAIL, email);
+        putIfPresent(claims, TENANT_ID, tenantId != null ? String.valueOf(tenantId) : null);
+        putIfPresent(claims, TENANT_UUID, tenantUuid);
+        putIfPresent(claims, USER_TYPE, userType);
+        putIfPresent(claims, ROLES, roles);
+        claims.put(TYPE, VerifiedToken.TYPE_ACCESS);
+        putIfPresent(claims, ACCOUNT_SCOPE, accountScope);
+        putIfPresent(claims, FAMILY_ID, familyId);
+        return claims;
+    }
+
+    static Map<String, Object> compactAccess(String userUuid, String email, Long tenantId, String tenantUuid,
+                                             String userType, String roles, String accountScope, String familyId) {
+        Map<String, Object> claims = new HashMap<>();
+        putIfPresent(claims, C_USER_UUID, userUuid);
+        putIfPresent(claims, C_EMAIL, email);
+        putIfPresent(claims, C_TENANT_ID, tenantId);
+        putIfPresent(claims, C_TENANT_UUID, tenantUuid);
+        putIfPresent(claims, C_USER_TYPE, userType);
+        if (roles != null && !roles.isEmpty()) {
+            claims.put(C_ROLES, roles);
+        }
+        claims.put(C_TYPE, C_ACCESS);
+        putIfPresent(claims, C_ACCOUNT_SCOPE, accountScope);
+        putIfPresent(claims, FAMILY_ID, familyId);
+        return claims;
+    }
+
+    static Map<String, Object> standardRefresh(String familyId) {
+        return Map.of(TYPE, VerifiedToken.TYPE_REFRESH, FAMILY_ID, familyId);
+    }
+
+    static Map<String, Object> compactRefresh(String familyId) {
+        return Map.of(C_TYPE, C_REFRESH, FAMILY_ID, familyId);
+    }
+
+    /** Absent claims are left out: platform users have no tenant, legacy sessions no family. */
+    private static void putIfPresent(Map<String, Object> claims, String name, Object value) {
+        if (value != null) {
+            claims.put(name, value);
+        }
+    }
+
+    /** Only the two known letters are accepted; anything else is not a token we issued. */
+    private static String compactType(String type) {
+        if (C_ACCESS.equals(type)) {
+            return VerifiedToken.TYPE_ACCESS;
+        }
+        if (C_REFRESH.equals(type)) {
+            return VerifiedToken.TYPE_REFRESH;
+        }
+        throw new UnsupportedJwtException("Unknown token type: " + type);
+    }
+
+    /**
+     * Decode either profile into the same {@link VerifiedToken}.
+     */
+    static VerifiedToken decode(Claims claims) {
+        if (claims.containsKey(C_TYPE)) {
+            return VerifiedToken.builder()
+                    .userId(Long.valueOf(claims.getSubject()))
+                    .userUuid(claims.get(C_USER_UUID, String.class))
+                    .email(claims.get(C_EMAIL, String.class))
+                    .tenantId(claims.get(C_TENANT_ID, Long.class))
+                    .tenantUuid(claims.get(C_TENANT_UUID, String.class))
+                    .userType(claims.get(C_USER_TYPE, String.class))
+                    .roles(claims.get(C_ROLES) != null ? claims.get(C_ROLES, String.class) : "")
+                    .accountScope(claims.get(C_ACCOUNT_SCOPE, String.class))
+                    .type(compactType(claims.get(C_TYPE, String.class)))
+                    .tokenId(claims.getId())
+                    .familyId(claims.get(FAMILY_ID, String.class))
+                    .issuedAt(claims.getIssuedAt())
+                    .expiresAt(claims.getExpiration())
+                    .build();
+        }
+
+        String tenantId = claims.get(TENANT_ID, String.class);
+        return VerifiedToken.builder()
+                .userId(Long.valueOf(claims.getSubject()))
+                .userUuid(claims.get(USER_UUID, String.class))
+                .email(claims.get(EMAIL, String.class))
+                .tenantId(tenantId != null ? Long.valueOf(tenantId) : null)
+                .tenantUuid(claims.get(TENANT_UUID, String.class))
+                .userType(claims.get(USER_TYPE, String.class))
+                .roles(claims.get(ROLES, String.class))
+                .accountScope(claims.get(ACCOUNT_SCOPE, String.class))
+                .type(claims.get(TYPE, String.class))
+                .tokenId(claims.getId())
+                .familyId(claims.get(FAMILY_ID, String.class))
+                .issuedAt(claims.getIssuedAt())
+                .expiresAt(claims.getExpiration())
+                .build();
+    }
+}
@@ -1,19 +1,61 @@
 package com.ezh.ezauth.security;
 
-import lombok.Data;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.annotation.RequestScope;
 
-@Data
+/**
+ * Read-only view of the current request's identity. Stateless singleton: every getter
+ * reads the {@link VerifiedToken} that {@link JwtAuthFilter} placed in the security context,
+ * so there is no scoped proxy and nothing is written per request.
+ */
 @Component
-@RequestScope
 public class UserContext {
-    private Long userId;
-    private String userUuid;
-    private String email;
-    private String tenantUuid;
-    private Long tenantId;
-    private String userType;
-    private String roles;
-    private String accountScope;
+
+    public VerifiedToken current() {
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthentication auth) {
+            return auth.getToken();
+        }
+        return null;
+    }
+
+    public Long getUserId() {
+        VerifiedToken token = current();
+        return token != null ? token.getUserId() : null;
+    }
+
+    public String getUserUuid() {
+        VerifiedToken token = current();
+        return token != null ? token.getUserUuid() : null;
+    }
+
+    public String getEmail() {
+        VerifiedToken token = current();
+        return token != null ? token.getEmail() : null;
+    }
+
+    public String getTenantUuid() {
+        VerifiedToken token = current();
+        return token != null ? token.getTenantUuid() : null;
+    }
+
+    public Long getTenantId() {
+        VerifiedToken token = current();
+        return token != null ? token.getTenantId() : null;
+    }
+
+    public String getUserType() {
+        VerifiedToken token = current();
+        return token != null ? token.getUserType() : null;
+    }
+
+    public String getRoles() {
+        VerifiedToken token = current();
+        return token != null ? token.getRoles() : null;
+    }
+
+    public String getAccountScope() {
+        VerifiedToken token = current();
+        return token != null ? token.getAccountScope() : null;
+    }
 }
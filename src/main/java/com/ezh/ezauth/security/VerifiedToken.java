@@ -0,0 +1,43 @@
+package com.ezh.ezauth.security;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Date;
+
+/**
+ * Immutable view of a JWT whose signature and expiry have already been verified.
+ * Built once per token so callers never need to re-parse it; see {@link TokenClaims}
+ * for the claim layouts it is decoded from.
+ */
+@Value
+@Builder
+public class VerifiedToken {
+
+    public static final String TYPE_ACCESS = "ACCESS";
+    public static final String TYPE_REFRESH = "REFRESH";
+
+    Long userId;
+    String userUuid;
+    String email;
+    Long tenantId;
+    String tenantUuid;
+    String userType;
+    String roles;
+    String accountScope;
+    String type;
+    /** jti; refresh tokens only. */
+    String tokenId;
+    /** Refresh-token family the token belongs to; null on tokens issued before families. */
+    String familyId;
+    Date issuedAt;
+    Date expiresAt;
+
+    public boolean isAccessToken() {
+        return TYPE_ACCESS.equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return TYPE_REFRESH.equals(type);
+    }
+}
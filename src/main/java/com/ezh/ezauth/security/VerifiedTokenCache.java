@@ -0,0 +1,85 @@
+package com.ezh.ezauth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of tokens whose signature has already been verified.
+ * Keys are a 64-bit FNV-1a hash of the compact token; the token itself is kept
+ * alongside the claims so a hash collision can never return someone else's claims.
+ * Each entry expires at the token's own {@code exp}.
+ */
+public class VerifiedTokenCache {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Cache<Long, Entry> cache;
+
+    public VerifiedTokenCache(Cache<Long, Entry> cache) {
+        this.cache = cache;
+    }
+
+    public VerifiedToken get(String token) {
+        Entry entry = cache.getIfPresent(hash(token));
+        if (entry == null || !entry.matches(token)) {
+            return null;
+        }
+        // Caffeine's expiry is lazy; never hand out a token past its exp.
+        if (entry.verified().getExpiresAt().getTime() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return entry.verified();
+    }
+
+    public void put(String token, VerifiedToken verified) {
+        if (verified.getExpiresAt() == null) {
+            return;
+        }
+        cache.put(hash(token), new Entry(token, verified));
+    }
+
+    public Cache<Long, Entry> getNativeCache() {
+        return cache;
+    }
+
+    static long hash(String token) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < token.length(); i++) {
+            hash ^= token.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    public record Entry(String token, VerifiedToken verified) {
+
+        boolean matches(String candidate) {
+            return token.equals(candidate);
+        }
+    }
+
+    /**
+     * Expires each entry when its token expires; reads and updates do not extend it.
+     */
+    public static class TokenExpiry implements Expiry<Long, Entry> {
+
+        @Override
+        public long expireAfterCreate(Long key, Entry value, long currentTime) {
+            long remainingMillis = value.verified().getExpiresAt().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, Entry value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, Entry value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.ezh.ezauth.subscription.controller;
 
+import com.ezh.ezauth.security.Privileges;
+import com.ezh.ezauth.security.RequiresPrivilege;
 import com.ezh.ezauth.subscription.dto.SubscriptionDto;
 import com.ezh.ezauth.subscription.dto.SubscriptionPlanDto;
 import com.ezh.ezauth.subscription.dto.SubscriptionPlanSummaryDto;
@@ -24,6 +26,7 @@ public class SubscriptionController {
 
     private final SubscriptionService subscriptionService;
 
+    @RequiresPrivilege(Privileges.SETTINGS_EDIT)
     @PostMapping(value = "/tenant/{tenantId}/plan/{planId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> subscribeTenant(
             @PathVariable Long tenantId,
@@ -40,6 +43,7 @@ public class SubscriptionController {
         return ResponseResource.success(HttpStatus.OK, response, "Current subscription fetched successfully");
     }
 
+    @RequiresPrivilege(Privileges.SETTINGS_EDIT)
     @PutMapping(value = "/{subscriptionId}/cancel", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> cancelSubscription(@PathVariable Long subscriptionId) throws CommonException {
         log.info("Entered cancel subscription for id: {}", subscriptionId);
@@ -3,6 +3,8 @@ package com.ezh.ezauth.subscription.dto;
 import com.ezh.ezauth.subscription.entity.SubscriptionStatus;
 import lombok.*;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Getter
@@ -10,7 +12,10 @@ import java.time.LocalDateTime;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-public class MiniSubscriptionDto {
+public class MiniSubscriptionDto implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private Long id;
     private Long applicationId;
     private SubscriptionStatus status;
@@ -6,6 +6,8 @@ import com.ezh.ezauth.subscription.entity.SubscriptionStatus;
 
 import lombok.*;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.time.Duration;
 import java.time.LocalDateTime;
 
@@ -14,7 +16,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class SubscriptionDto {
+public class SubscriptionDto implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private Long id;
     private SubscriptionPlanDto plan;
     private SubscriptionStatus status;
@@ -5,6 +5,8 @@ import com.ezh.ezauth.subscription.entity.SubscriptionPlan;
 import lombok.*;
 
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.math.BigDecimal;
 
 
@@ -13,7 +15,10 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class SubscriptionPlanDto {
+public class SubscriptionPlanDto implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private Long id;
     private Long applicationId;
     private String name;
@@ -2,35 +2,72 @@ package com.ezh.ezauth.subscription.repository;
 
 import com.ezh.ezauth.subscription.entity.Subscription;
 import com.ezh.ezauth.subscription.entity.SubscriptionStatus;
+import com.ezh.ezauth.subscription.repository.projection.ExpiringSubscriptionProjection;
+import com.ezh.ezauth.subscription.repository.projection.SubscriptionEndProjection;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
 
+    /**
+     * Inlined as a literal, not bound, so Postgres can match the partial indexes on
+     * {@code status = 'ACTIVE'} (V10) even with a generic prepared-statement plan.
+     */
+    String ACTIVE = "com.ezh.ezauth.subscription.entity.SubscriptionStatus.ACTIVE";
+
     Optional<Subscription> findByTenantIdAndStatus(Long tenantId, SubscriptionStatus status);
 
     @Query("SELECT s FROM Subscription s WHERE s.tenant.id = :tenantId " +
             "AND s.isPrimary = true " +
-            "AND s.status = :status")
-    Optional<Subscription> findPrimaryActiveSubscription(@Param("tenantId") Long tenantId,
-                                                         @Param("status") SubscriptionStatus status);
-
-    // Using boolean logic and status check
-    @Query("""
-            SELECT s FROM Subscription s WHERE s.tenant.id = :tenantId
-                    AND s.status = :status 
-                    AND s.isPrimary = true
-                    AND s.endDate > :now
-            """)
-    Optional<Subscription> findValidSubscription(
-            @Param("tenantId") Long tenantId,
-            @Param("status") SubscriptionStatus status,
-            @Param("now") LocalDateTime now
-    );
+            "AND s.status = " + ACTIVE)
+    Optional<Subscription> findPrimaryActiveSubscription(@Param("tenantId") Long tenantId);
+
+    @Query("SELECT s FROM Subscription s JOIN FETCH s.plan WHERE s.tenant.id IN :tenantIds " +
+            "AND s.isPrimary = true " +
+            "AND s.status = " + ACTIVE)
+    List<Subscription> findPrimaryActiveSubscriptions(@Param("tenantIds") Collection<Long> tenantIds);
+
+    @Query("SELECT MAX(s.endDate) FROM Subscription s WHERE s.tenant.id = :tenantId " +
+            "AND s.isPrimary = true " +
+            "AND s.status = " + ACTIVE)
+    Optional<LocalDateTime> findPrimaryEndDate(@Param("tenantId") Long tenantId);
+
+    @Query("SELECT s.tenant.id AS tenantId, MAX(s.endDate) AS endDate FROM Subscription s " +
+            "WHERE s.isPrimary = true AND s.status = " + ACTIVE + " GROUP BY s.tenant.id")
+    List<SubscriptionEndProjection> findPrimaryEndDates();
+
+    /** Keyset page of subscriptions past their end date, ordered by id. */
+    @Query("SELECT s.id AS id, s.tenant.id AS tenantId, s.autoRenew AS autoRenew, p.isActive AS planActive " +
+            "FROM Subscription s JOIN s.plan p " +
+            "WHERE s.status = " + ACTIVE + " AND s.endDate <= :now AND s.id > :afterId " +
+            "ORDER BY s.id")
+    List<ExpiringSubscriptionProjection> findEndedAfterId(@Param("now") LocalDateTime now,
+                                                          @Param("afterId") Long afterId,
+                                                          Limit limit);
+
+    @Modifying
+    @Query("UPDATE Subscription s SET s.status = :expired, s.updatedAt = :now " +
+            "WHERE s.id IN :ids AND s.status = :active AND s.endDate <= :now")
+    int expireByIdIn(@Param("ids") Collection<Long> ids,
+                     @Param("active") SubscriptionStatus active,
+                     @Param("expired") SubscriptionStatus expired,
+                     @Param("now") LocalDateTime now);
+
+    /** Extends each subscription by its plan's duration, counted from the old end date. */
+    @Modifying
+    @Query(value = "UPDATE auth.subscriptions s " +
+            "SET end_date = s.end_date + make_interval(days => p.duration_days), updated_at = NOW() " +
+            "FROM auth.subscription_plans p " +
+            "WHERE p.id = s.plan_id AND s.id IN (:ids) AND s.status = 'ACTIVE' AND s.end_date <= :now", nativeQuery = true)
+    int renewByIdIn(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.ezh.ezauth.subscription.repository.projection;
+
+public interface ExpiringSubscriptionProjection {
+    Long getId();
+    Long getTenantId();
+    Boolean getAutoRenew();
+    Boolean getPlanActive();
+}
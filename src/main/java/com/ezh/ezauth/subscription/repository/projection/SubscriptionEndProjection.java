@@ -0,0 +1,8 @@
+package com.ezh.ezauth.subscription.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface SubscriptionEndProjection {
+    Long getTenantId();
+    LocalDateTime getEndDate();
+}
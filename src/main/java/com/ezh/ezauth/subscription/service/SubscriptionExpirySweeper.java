@@ -0,0 +1,116 @@
+package com.ezh.ezauth.subscription.service;
+
+import com.ezh.ezauth.common.event.SubscriptionChangedEvent;
+import com.ezh.ezauth.subscription.entity.SubscriptionStatus;
+import com.ezh.ezauth.subscription.repository.SubscriptionRepository;
+import com.ezh.ezauth.subscription.repository.projection.ExpiringSubscriptionProjection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves subscriptions past their end date out of ACTIVE, so the table's status is the
+ * truth rather than something every reader re-derives from end_date.
+ * <p>
+ * Walks the ended rows in keyset batches of {@code ezauth.subscription.sweeper.batch-size},
+ * one transaction per batch. Auto-renewing subscriptions on an active plan are extended by
+ * the plan's duration; the rest are set to EXPIRED. Both are bulk UPDATEs that re-check
+ * status and end date, so every node may run the sweep without double-renewing.
+ */
+@Slf4j
+@Component
+public class SubscriptionExpirySweeper {
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final Counter expired;
+    private final Counter renewed;
+    private final Timer sweepTimer;
+
+    @Value("${ezauth.subscription.sweeper.batch-size:500}")
+    private int batchSize;
+
+    public SubscriptionExpirySweeper(SubscriptionRepository subscriptionRepository,
+                                     ApplicationEventPublisher eventPublisher,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.expired = Counter.builder("ezauth.subscription.sweeper.transitions")
+                .tag("outcome", "expired")
+                .register(meterRegistry);
+        this.renewed = Counter.builder("ezauth.subscription.sweeper.transitions")
+                .tag("outcome", "renewed")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("ezauth.subscription.sweeper.run")
+                .description("Duration of one subscription expiry sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${ezauth.subscription.sweeper.interval:1m}", initialDelay = 30_000)
+    public void sweep() {
+        sweepTimer.record(this::sweepAll);
+    }
+
+    private void sweepAll() {
+        LocalDateTime now = LocalDateTime.now();
+        long afterId = 0;
+        int processed = 0;
+        Batch batch;
+        do {
+            long cursor = afterId;
+            batch = transaction.execute(status -> sweepBatch(now, cursor));
+            processed += batch.size();
+            afterId = batch.lastId();
+        } while (batch.size() == batchSize);
+
+        if (processed > 0) {
+            log.info("Subscription sweep processed {} ended subscriptions", processed);
+        }
+    }
+
+    private Batch sweepBatch(LocalDateTime now, long afterId) {
+        List<ExpiringSubscriptionProjection> rows = subscriptionRepository.findEndedAfterId(now, afterId, Limit.of(batchSize));
+        if (rows.isEmpty()) {
+            return new Batch(0, afterId);
+        }
+
+        List<Long> toRenew = new ArrayList<>();
+        List<Long> toExpire = new ArrayList<>();
+        Set<Long> tenantIds = new HashSet<>();
+        for (ExpiringSubscriptionProjection row : rows) {
+            boolean renewable = Boolean.TRUE.equals(row.getAutoRenew()) && Boolean.TRUE.equals(row.getPlanActive());
+            (renewable ? toRenew : toExpire).add(row.getId());
+            tenantIds.add(row.getTenantId());
+        }
+
+        // A renewal that still ends before now is renewed again by the next sweep.
+        int renewedRows = toRenew.isEmpty() ? 0 : subscriptionRepository.renewByIdIn(toRenew, now);
+        int expiredRows = toExpire.isEmpty() ? 0 : subscriptionRepository.expireByIdIn(
+                toExpire, SubscriptionStatus.ACTIVE, SubscriptionStatus.EXPIRED, now);
+        renewed.increment(renewedRows);
+        expired.increment(expiredRows);
+
+        tenantIds.forEach(tenantId -> eventPublisher.publishEvent(new SubscriptionChangedEvent(tenantId)));
+        return new Batch(rows.size(), rows.get(rows.size() - 1).getId());
+    }
+
+    private record Batch(int size, long lastId) {
+    }
+}
@@ -10,13 +10,16 @@ import com.ezh.ezauth.subscription.repository.SubscriptionPlanRepository;
 import com.ezh.ezauth.subscription.repository.SubscriptionRepository;
 import com.ezh.ezauth.tenant.entity.Tenant;
 import com.ezh.ezauth.tenant.repository.TenantRepository;
+import com.ezh.ezauth.utils.UserContextUtil;
 import com.ezh.ezauth.utils.common.CommonResponse;
 import com.ezh.ezauth.utils.common.Status;
 import com.ezh.ezauth.utils.exception.CommonException;
 import com.ezh.ezauth.common.entity.Application;
+import com.ezh.ezauth.common.event.SubscriptionChangedEvent;
 import com.ezh.ezauth.common.repository.ApplicationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -39,10 +42,13 @@ public class SubscriptionService {
     private final SubscriptionPlanRepository planRepository;
     private final TenantRepository tenantRepository;
     private final ApplicationRepository applicationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SubscriptionValidityIndex subscriptionValidityIndex;
 
     @Transactional
     public CommonResponse subscribeTenant(Long tenantId, Long planId) throws CommonException {
         log.info("Assigning plan {} to tenant {}", planId, tenantId);
+        UserContextUtil.requireTenantAccess(tenantId);
 
         Tenant tenant = tenantRepository.findById(tenantId)
                 .orElseThrow(() -> new CommonException("Tenant not found with id: " + tenantId, HttpStatus.BAD_REQUEST));
@@ -50,7 +56,7 @@ public class SubscriptionService {
         SubscriptionPlan plan = planRepository.findById(planId)
                 .orElseThrow(() -> new CommonException("Plan not found with id: " + planId, HttpStatus.BAD_REQUEST));
 
-        subscriptionRepository.findPrimaryActiveSubscription(tenantId, SubscriptionStatus.ACTIVE)
+        subscriptionRepository.findPrimaryActiveSubscription(tenantId)
                 .ifPresent(oldSub -> {
                     oldSub.setIsPrimary(false);
                     oldSub.setStatus(SubscriptionStatus.EXPIRED);
@@ -70,6 +76,7 @@ public class SubscriptionService {
                 .build();
 
         subscriptionRepository.save(subscription);
+        eventPublisher.publishEvent(new SubscriptionChangedEvent(tenantId));
 
         return CommonResponse.builder()
                 .id(tenantId.toString())
@@ -80,12 +87,13 @@ public class SubscriptionService {
 
     @Transactional(readOnly = true)
     public SubscriptionDto getTenantSubscription(Long tenantId) throws CommonException {
+        UserContextUtil.requireTenantAccess(tenantId);
         if (!tenantRepository.existsById(tenantId)) {
             throw new CommonException("Tenant not found with id: " + tenantId, HttpStatus.BAD_REQUEST);
         }
 
         Subscription subscription = subscriptionRepository
-                .findPrimaryActiveSubscription(tenantId, SubscriptionStatus.ACTIVE)
+                .findPrimaryActiveSubscription(tenantId)
                 .orElseThrow(() -> new CommonException("No active subscription found for tenant.", HttpStatus.BAD_REQUEST));
 
         return mapToDto(subscription);
@@ -95,10 +103,12 @@ public class SubscriptionService {
     public CommonResponse cancelSubscription(Long subscriptionId) throws CommonException {
         Subscription subscription = subscriptionRepository.findById(subscriptionId)
                 .orElseThrow(() -> new CommonException("Subscription not found", HttpStatus.BAD_REQUEST));
+        UserContextUtil.requireTenantAccess(subscription.getTenant().getId());
 
         subscription.setStatus(SubscriptionStatus.CANCELLED);
         subscription.setAutoRenew(false);
         subscription = subscriptionRepository.save(subscription);
+        eventPublisher.publishEvent(new SubscriptionChangedEvent(subscription.getTenant().getId()));
 
         return CommonResponse.builder()
                 .id(subscription.getId().toString())
@@ -112,6 +122,8 @@ public class SubscriptionService {
     public CommonResponse createPlan(SubscriptionPlanDto dto) throws CommonException {
 
         log.info("Creating new subscription plan: {}", dto.getName());
+        // Plans are shared by every tenant
+        UserContextUtil.requirePlatformAccess();
 
         Application application = applicationRepository.findById(dto.getApplicationId())
                 .orElseThrow(() -> new CommonException("Application not found with id: " + dto.getApplicationId(), HttpStatus.BAD_REQUEST));
@@ -139,6 +151,7 @@ public class SubscriptionService {
     @Transactional
     public CommonResponse editPlan(Long planId, SubscriptionPlanDto dto) throws CommonException {
         log.info("Editing subscription plan: {}", planId);
+        UserContextUtil.requirePlatformAccess();
 
         SubscriptionPlan plan = planRepository.findById(planId)
                 .orElseThrow(() -> new CommonException("Subscription plan not found with id: " + planId, HttpStatus.BAD_REQUEST));
@@ -170,6 +183,7 @@ public class SubscriptionService {
     @Transactional
     public CommonResponse deletePlan(Long planId) throws CommonException {
         log.info("Deleting subscription plan: {}", planId);
+        UserContextUtil.requirePlatformAccess();
 
         SubscriptionPlan plan = planRepository.findById(planId)
                 .orElseThrow(() -> new CommonException("Subscription plan not found with id: " + planId, HttpStatus.BAD_REQUEST));
@@ -186,6 +200,7 @@ public class SubscriptionService {
     @Transactional
     public CommonResponse disablePlan(Long planId) throws CommonException {
         log.info("Disabling subscription plan: {}", planId);
+        UserContextUtil.requirePlatformAccess();
 
         SubscriptionPlan plan = planRepository.findById(planId)
                 .orElseThrow(() -> new CommonException("Subscription plan not found with id: " + planId, HttpStatus.BAD_REQUEST));
@@ -222,10 +237,11 @@ public class SubscriptionService {
     }
 
     /**
-     * Checks if the given tenant has an active and unexpired subscription.
+     * Checks if the given tenant has an active and unexpired subscription. Served from
+     * {@link SubscriptionValidityIndex}; no query on the sign-in path.
      */
     public Boolean hasValidSubscription(Long tenantId) {
-        return subscriptionRepository.findValidSubscription(tenantId, SubscriptionStatus.ACTIVE, LocalDateTime.now()).isPresent();
+        return subscriptionValidityIndex.isValid(tenantId);
     }
 
     private SubscriptionPlanSummaryDto mapToSummaryDto(SubscriptionPlan plan) {
@@ -0,0 +1,119 @@
+package com.ezh.ezauth.subscription.service;
+
+import com.ezh.ezauth.cluster.ClusterEvent;
+import com.ezh.ezauth.common.event.SubscriptionChangedEvent;
+import com.ezh.ezauth.subscription.repository.SubscriptionRepository;
+import com.ezh.ezauth.subscription.repository.projection.SubscriptionEndProjection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of each tenant's primary active subscription, so sign-in, refresh and
+ * Google sign-in check validity without a query.
+ * <p>
+ * Maps tenantId to the subscription's end in epoch millis, or {@link #NONE}. Loaded once the
+ * application is ready, reloaded per tenant when a subscription change commits on any node,
+ * and reconciled against the database on a fixed delay in case an update was missed.
+ * A tenant not in the index yet is looked up once and remembered, including "none".
+ * Writers race freely; each entry keeps the value from the read that started last.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SubscriptionValidityIndex {
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final SubscriptionRepository subscriptionRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong readClock = new AtomicLong();
+
+    /**
+     * A tenant's end date and the tick at which the read producing it started. A read that
+     * started later has seen every commit an earlier one saw, so the higher tick wins.
+     */
+    private record Entry(long endsAt, long readAt) {
+
+        static Entry newer(Entry current, Entry candidate) {
+            return candidate.readAt > current.readAt ? candidate : current;
+        }
+    }
+
+    public boolean isValid(Long tenantId) {
+        Entry entry = entries.get(tenantId);
+        if (entry == null) {
+            // Queried outside the map so the lookup holds no bin lock; a racing load keeps the newer read.
+            entry = store(tenantId, readClock.incrementAndGet(), query(tenantId));
+        }
+        return entry.endsAt() > System.currentTimeMillis();
+    }
+
+    /**
+     * Runs on every node after the change commits. Its read starts after the commit, so it
+     * outranks any first lookup or reconcile that was already in flight.
+     */
+    @EventListener
+    public void onSubscriptionChanged(ClusterEvent<SubscriptionChangedEvent> event) {
+        Long tenantId = event.event().tenantId();
+        store(tenantId, readClock.incrementAndGet(), query(tenantId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile();
+        log.info("Loaded subscription validity index with {} tenants", entries.size());
+    }
+
+    @Scheduled(fixedDelayString = "${ezauth.subscription.index.reconcile-interval:5m}",
+            initialDelayString = "${ezauth.subscription.index.reconcile-interval:5m}")
+    public void reconcile() {
+        long readAt = readClock.incrementAndGet();
+        Map<Long, Long> current = new HashMap<>();
+        for (SubscriptionEndProjection row : subscriptionRepository.findPrimaryEndDates()) {
+            current.put(row.getTenantId(), toEpochMillis(row.getEndDate()));
+        }
+        for (Long tenantId : entries.keySet()) {
+            current.putIfAbsent(tenantId, NONE);
+        }
+
+        int corrected = 0;
+        for (Map.Entry<Long, Long> row : current.entrySet()) {
+            Entry previous = entries.get(row.getKey());
+            // A tenant reloaded while the query ran holds a later read and is left alone.
+            Entry stored = store(row.getKey(), readAt, row.getValue());
+            if (previous != null && stored.readAt() == readAt && previous.endsAt() != stored.endsAt()) {
+                corrected++;
+            }
+        }
+        if (corrected > 0) {
+            log.warn("Subscription validity index was stale for {} tenants", corrected);
+        }
+    }
+
+    private Entry store(Long tenantId, long readAt, long endsAt) {
+        return entries.merge(tenantId, new Entry(endsAt, readAt), Entry::newer);
+    }
+
+    private long query(Long tenantId) {
+        return subscriptionRepository.findPrimaryEndDate(tenantId)
+                .map(SubscriptionValidityIndex::toEpochMillis)
+                .orElse(NONE);
+    }
+
+    /** endDate is written from LocalDateTime.now(), i.e. in the JVM's zone. */
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,5 +1,7 @@
 package com.ezh.ezauth.tenant.controller;
 
+import com.ezh.ezauth.security.Privileges;
+import com.ezh.ezauth.security.RequiresPrivilege;
 import com.ezh.ezauth.branch.dto.BranchDto;
 import com.ezh.ezauth.branch.service.BranchService;
 import com.ezh.ezauth.common.dto.AddressDto;
@@ -43,6 +45,7 @@ public class TenantController {
         return ResponseResource.success(HttpStatus.OK, response, "Bulk tenants fetched successfully");
     }
 
+    @RequiresPrivilege(Privileges.SETTINGS_EDIT)
     @PutMapping(value = "/{tenantId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> updateTenant(@PathVariable Long tenantId, @Valid @RequestBody TenantRegistrationRequest request) throws CommonException {
         log.info("Entered updateTenant details with : {}", request);
@@ -57,6 +60,7 @@ public class TenantController {
         return ResponseResource.success(HttpStatus.OK, response, "Tenant details fetched successfully");
     }
 
+    @RequiresPrivilege(Privileges.SETTINGS_EDIT)
     @PostMapping(value = "/{tenantId}/details", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> createTenantDetails(
             @PathVariable Long tenantId,
@@ -66,6 +70,7 @@ public class TenantController {
         return ResponseResource.success(HttpStatus.CREATED, response, "Tenant business details created successfully");
     }
 
+    @RequiresPrivilege(Privileges.SETTINGS_EDIT)
     @PutMapping(value = "/{tenantId}/details", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> updateTenantDetails(
             @PathVariable Long tenantId,
@@ -82,6 +87,7 @@ public class TenantController {
         return ResponseResource.success(HttpStatus.OK, response, "Tenant business details fetched successfully");
     }
 
+    @RequiresPrivilege(Privileges.SETTINGS_EDIT)
     @PostMapping(value = "/{tenantId}/address", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> createTenantAddress(
             @PathVariable Long tenantId,
@@ -91,6 +97,7 @@ public class TenantController {
         return ResponseResource.success(HttpStatus.CREATED, response, "Tenant address created successfully");
     }
 
+    @RequiresPrivilege(Privileges.SETTINGS_EDIT)
     @PutMapping(value = "/{tenantId}/address/{addressId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> updateTenantAddress(
             @PathVariable Long tenantId,
@@ -109,6 +116,7 @@ public class TenantController {
         return ResponseResource.success(HttpStatus.OK, response, "Current tenant fetched successfully");
     }
 
+    @RequiresPrivilege(Privileges.SETTINGS_EDIT)
     @PutMapping(value = "/{tenantId}/toggle-status", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> toggleTenantStatus(@PathVariable Long tenantId) throws CommonException {
         log.info("Toggling status for tenant ID: {}", tenantId);
@@ -116,6 +124,7 @@ public class TenantController {
         return ResponseResource.success(HttpStatus.OK, response, response.getMessage());
     }
 
+    @RequiresPrivilege(Privileges.SETTINGS_EDIT)
     @DeleteMapping(value = "/{tenantId}/address/{addressId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> deleteTenantAddress(
             @PathVariable Long tenantId,
@@ -10,11 +10,16 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class TenantDetailsDto {
+public class TenantDetailsDto implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     @NotNull(message = "Business type is required")
     private BusinessType businessType;
@@ -7,6 +7,8 @@ import com.ezh.ezauth.subscription.dto.SubscriptionDto;
 import com.ezh.ezauth.user.dto.UserMiniDto;
 import lombok.*;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.Set;
 
 @Getter
@@ -14,7 +16,10 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class TenantDto {
+public class TenantDto implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private Long id;
     private String tenantUuid;
     private String tenantName;
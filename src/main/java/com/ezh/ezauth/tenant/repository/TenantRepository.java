@@ -2,6 +2,7 @@ package com.ezh.ezauth.tenant.repository;
 
 import com.ezh.ezauth.common.entity.Application;
 import com.ezh.ezauth.tenant.entity.Tenant;
+import com.ezh.ezauth.tenant.repository.projection.TenantApplicationProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,6 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -21,6 +23,25 @@ public interface TenantRepository extends JpaRepository<Tenant, Long> {
 
     List<Tenant> findByIdIn(List<Long> tenantIds);
 
+    @Query("SELECT t.id FROM Tenant t")
+    Page<Long> findTenantIds(Pageable pageable);
+
+    @Query("""
+        SELECT t FROM Tenant t
+        LEFT JOIN FETCH t.tenantAdmin
+        LEFT JOIN FETCH t.tenantDetails
+        WHERE t.id IN :tenantIds
+    """)
+    List<Tenant> findWithAdminAndDetailsByIdIn(@Param("tenantIds") Collection<Long> tenantIds);
+
+    @Query("""
+        SELECT t.id AS tenantId, a.id AS id, a.appName AS appName, a.appKey AS appKey,
+               a.description AS description, a.isActive AS isActive
+        FROM Tenant t JOIN t.applications a
+        WHERE t.id IN :tenantIds
+    """)
+    List<TenantApplicationProjection> findApplicationsByTenantIds(@Param("tenantIds") Collection<Long> tenantIds);
+
     Boolean existsByTenantCode(String tenantCode);
 
     @Query("""
@@ -30,6 +51,9 @@ public interface TenantRepository extends JpaRepository<Tenant, Long> {
     """)
     Set<Application> findApplicationsByTenantId(@Param("tenantId") Long tenantId);
 
+    @Query("SELECT a.appKey FROM Tenant t JOIN t.applications a WHERE t.id = :tenantId")
+    Set<String> findAppKeysByTenantId(@Param("tenantId") Long tenantId);
+
     @Query("SELECT CASE WHEN COUNT(a) > 0 THEN true ELSE false END FROM Tenant t JOIN t.applications a WHERE t.id = :tenantId AND a.id = :appId")
     boolean existsTenantApplication(@Param("tenantId") Long tenantId, @Param("appId") Long appId);
 
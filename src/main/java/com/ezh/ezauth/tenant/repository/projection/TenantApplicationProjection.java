@@ -0,0 +1,10 @@
+package com.ezh.ezauth.tenant.repository.projection;
+
+public interface TenantApplicationProjection {
+    Long getTenantId();
+    Long getId();
+    String getAppName();
+    String getAppKey();
+    String getDescription();
+    Boolean getIsActive();
+}
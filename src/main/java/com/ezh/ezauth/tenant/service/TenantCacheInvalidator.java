@@ -0,0 +1,40 @@
+package com.ezh.ezauth.tenant.service;
+
+import com.ezh.ezauth.cluster.ClusterEvent;
+import com.ezh.ezauth.common.event.SubscriptionChangedEvent;
+import com.ezh.ezauth.common.event.TenantChangedEvent;
+import com.ezh.ezauth.common.event.UserChangedEvent;
+import com.ezh.ezauth.tenant.dto.TenantDto;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops tenantDtoCache entries when a committed change reaches this node. Address and
+ * business-detail writes evict directly through the clustered cache instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class TenantCacheInvalidator {
+
+    private final AsyncLoadingCache<Long, TenantDto> tenantDtoCache;
+
+    @EventListener
+    public void onTenantChanged(ClusterEvent<TenantChangedEvent> event) {
+        tenantDtoCache.synchronous().invalidate(event.event().tenantId());
+    }
+
+    @EventListener
+    public void onSubscriptionChanged(ClusterEvent<SubscriptionChangedEvent> event) {
+        tenantDtoCache.synchronous().invalidate(event.event().tenantId());
+    }
+
+    /** The DTO embeds the tenant admin; there are few tenants, so a scan is cheap. */
+    @EventListener
+    public void onUserChanged(ClusterEvent<UserChangedEvent> event) {
+        Long userId = event.event().userId();
+        tenantDtoCache.synchronous().asMap().values().removeIf(tenant ->
+                tenant.getTenantAdmin() != null && userId.equals(tenant.getTenantAdmin().getId()));
+    }
+}
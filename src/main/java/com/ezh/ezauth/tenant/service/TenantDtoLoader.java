@@ -0,0 +1,188 @@
+package com.ezh.ezauth.tenant.service;
+
+import com.ezh.ezauth.common.dto.AddressDto;
+import com.ezh.ezauth.common.dto.ApplicationDto;
+import com.ezh.ezauth.common.entity.EntityType;
+import com.ezh.ezauth.common.repository.AddressRepository;
+import com.ezh.ezauth.common.repository.projection.AddressProjection;
+import com.ezh.ezauth.subscription.dto.SubscriptionDto;
+import com.ezh.ezauth.subscription.dto.SubscriptionPlanDto;
+import com.ezh.ezauth.subscription.entity.Subscription;
+import com.ezh.ezauth.subscription.entity.SubscriptionPlan;
+import com.ezh.ezauth.subscription.repository.SubscriptionRepository;
+import com.ezh.ezauth.tenant.dto.TenantDetailsDto;
+import com.ezh.ezauth.tenant.dto.TenantDto;
+import com.ezh.ezauth.tenant.entity.Tenant;
+import com.ezh.ezauth.tenant.entity.TenantDetails;
+import com.ezh.ezauth.tenant.repository.TenantRepository;
+import com.ezh.ezauth.tenant.repository.projection.TenantApplicationProjection;
+import com.ezh.ezauth.user.dto.UserMiniDto;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Batched tenant read model behind tenantDtoCache. Loads run on the cache's loader
+ * threads, so each batch opens its own read-only transaction.
+ */
+@Component
+public class TenantDtoLoader implements CacheLoader<Long, TenantDto> {
+
+    private final TenantRepository tenantRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final AddressRepository addressRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public TenantDtoLoader(TenantRepository tenantRepository,
+                           SubscriptionRepository subscriptionRepository,
+                           AddressRepository addressRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.tenantRepository = tenantRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.addressRepository = addressRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public TenantDto load(Long tenantId) {
+        return loadAll(Set.of(tenantId)).get(tenantId);
+    }
+
+    /**
+     * Four queries for the whole batch: tenants with admin and details, applications,
+     * addresses, and primary active subscriptions with their plans.
+     */
+    @Override
+    public Map<Long, TenantDto> loadAll(Set<? extends Long> tenantIds) {
+        List<Long> ids = new ArrayList<>(tenantIds);
+        return readOnlyTransaction.execute(status -> {
+            List<Tenant> tenants = tenantRepository.findWithAdminAndDetailsByIdIn(ids);
+            if (tenants.isEmpty()) {
+                return Map.of();
+            }
+
+            Map<Long, Set<ApplicationDto>> applications = new HashMap<>();
+            for (TenantApplicationProjection app : tenantRepository.findApplicationsByTenantIds(ids)) {
+                applications.computeIfAbsent(app.getTenantId(), id -> new HashSet<>()).add(ApplicationDto.builder()
+                        .id(app.getId())
+                        .appName(app.getAppName())
+                        .appKey(app.getAppKey())
+                        .description(app.getDescription())
+                        .isActive(app.getIsActive())
+                        .build());
+            }
+
+            Map<Long, Set<AddressDto>> addresses = new HashMap<>();
+            for (AddressProjection address : addressRepository.findAddressesByEntityIds(EntityType.TENANT, ids)) {
+                addresses.computeIfAbsent(address.getEntityId(), id -> new HashSet<>()).add(address.toDto());
+            }
+
+            Map<Long, SubscriptionDto> subscriptions = new HashMap<>();
+            for (Subscription subscription : subscriptionRepository.findPrimaryActiveSubscriptions(ids)) {
+                subscriptions.putIfAbsent(subscription.getTenant().getId(), mapToSubscriptionDto(subscription));
+            }
+
+            Map<Long, TenantDto> result = new HashMap<>(tenants.size());
+            for (Tenant tenant : tenants) {
+                Long id = tenant.getId();
+                result.put(id, dtoConstructor(tenant, applications.get(id), addresses.get(id), subscriptions.get(id)));
+            }
+            return result;
+        });
+    }
+
+    static TenantDetailsDto mapEntityToDto(TenantDetails entity) {
+        if (entity == null) {
+            return null;
+        }
+        return TenantDetailsDto.builder()
+                .legalName(entity.getLegalName())
+                .businessType(entity.getBusinessType())
+                .baseCurrency(entity.getBaseCurrency())
+                .timeZone(entity.getTimeZone())
+                .gstNumber(entity.getGstNumber())
+                .panNumber(entity.getPanNumber())
+                .supportEmail(entity.getSupportEmail())
+                .contactPhone(entity.getContactPhone())
+                .website(entity.getWebsite())
+                .logoUrl(entity.getLogoUrl())
+                .build();
+    }
+
+    private TenantDto dtoConstructor(Tenant tenant, Set<ApplicationDto> applicationDtos,
+                                     Set<AddressDto> addressDtos, SubscriptionDto subscriptionDto) {
+
+        // Map Tenant Admin (User Entity -> UserMiniDto)
+        UserMiniDto adminDto = null;
+        if (tenant.getTenantAdmin() != null) {
+            adminDto = UserMiniDto.builder()
+                    .id(tenant.getTenantAdmin().getId())
+                    .UserUuid(tenant.getTenantAdmin().getUserUuid())
+                    .userType(tenant.getTenantAdmin().getUserType() != null ? tenant.getTenantAdmin().getUserType().toString() : null)
+                    .name(tenant.getTenantAdmin().getFullName())
+                    .email(tenant.getTenantAdmin().getEmail())
+                    .phone(tenant.getTenantAdmin().getPhone())
+                    .build();
+        }
+
+        // Build and Return TenantDto
+        return TenantDto.builder()
+                .id(tenant.getId())
+                .tenantUuid(tenant.getTenantUuid())
+                .tenantName(tenant.getTenantName())
+                .tenantCode(tenant.getTenantCode())
+                .email(adminDto != null ? adminDto.getEmail() : null)
+                .phone(adminDto != null ? adminDto.getPhone() : null)
+                .isActive(tenant.getIsActive())
+                .tenantAdmin(adminDto)
+                .applications(applicationDtos)
+                .tenantAddress(addressDtos)
+                .tenantDetails(mapEntityToDto(tenant.getTenantDetails()))
+                .subscription(subscriptionDto)
+                .build();
+    }
+
+    private SubscriptionDto mapToSubscriptionDto(Subscription subscription) {
+        long daysRemaining = 0;
+        LocalDateTime now = LocalDateTime.now();
+        if (subscription.getEndDate() != null && now.isBefore(subscription.getEndDate())) {
+            daysRemaining = Duration.between(now, subscription.getEndDate()).toDays();
+        }
+
+        SubscriptionPlan plan = subscription.getPlan();
+        SubscriptionPlanDto planDto = SubscriptionPlanDto.builder()
+                .id(plan.getId())
+                .applicationId(plan.getApplication().getId())
+                .name(plan.getName())
+                .description(plan.getDescription())
+                .type(plan.getType())
+                .price(plan.getPrice())
+                .durationDays(plan.getDurationDays())
+                .maxUsers(plan.getMaxUsers())
+                .isActive(plan.getIsActive())
+                .build();
+
+        return SubscriptionDto.builder()
+                .id(subscription.getId())
+                .plan(planDto)
+                .status(subscription.getStatus())
+                .startDate(subscription.getStartDate())
+                .endDate(subscription.getEndDate())
+                .autoRenew(subscription.getAutoRenew())
+                .createdAt(subscription.getCreatedAt())
+                .isValid(subscription.isValid())
+                .daysRemaining(daysRemaining)
+                .build();
+    }
+}
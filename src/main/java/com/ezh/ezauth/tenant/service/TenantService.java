@@ -2,20 +2,23 @@ package com.ezh.ezauth.tenant.service;
 
 
 import com.ezh.ezauth.auth.dto.AuthResponse;
+import com.ezh.ezauth.auth.service.RefreshTokenStore;
+import com.ezh.ezauth.auth.service.TokenRevocationRegistry;
 import com.ezh.ezauth.common.dto.AddressDto;
-import com.ezh.ezauth.common.dto.ApplicationDto;
 import com.ezh.ezauth.common.entity.Address;
 import com.ezh.ezauth.common.entity.Application;
 import com.ezh.ezauth.common.entity.EntityType;
 import com.ezh.ezauth.common.entity.Module;
 import com.ezh.ezauth.common.entity.Privilege;
 import com.ezh.ezauth.common.entity.Role;
+import com.ezh.ezauth.common.event.SubscriptionChangedEvent;
+import com.ezh.ezauth.common.event.TenantChangedEvent;
+import com.ezh.ezauth.common.event.UserChangedEvent;
 import com.ezh.ezauth.common.repository.ApplicationRepository;
 import com.ezh.ezauth.common.repository.ModuleRepository;
 import com.ezh.ezauth.common.repository.RoleRepository;
 import com.ezh.ezauth.security.JwtTokenProvider;
-import com.ezh.ezauth.subscription.dto.SubscriptionDto;
-import com.ezh.ezauth.subscription.dto.SubscriptionPlanDto;
+import com.ezh.ezauth.security.PasswordHashing;
 import com.ezh.ezauth.subscription.entity.Subscription;
 import com.ezh.ezauth.subscription.entity.SubscriptionPlan;
 import com.ezh.ezauth.subscription.entity.SubscriptionStatus;
@@ -26,20 +29,22 @@ import com.ezh.ezauth.tenant.entity.Tenant;
 import com.ezh.ezauth.tenant.entity.TenantDetails;
 import com.ezh.ezauth.tenant.repository.TenantDetailsRepository;
 import com.ezh.ezauth.tenant.repository.TenantRepository;
-import com.ezh.ezauth.user.dto.UserMiniDto;
 import com.ezh.ezauth.user.entity.*;
 import com.ezh.ezauth.user.repository.UserApplicationRepository;
 import com.ezh.ezauth.user.repository.UserModulePrivilegeRepository;
 import com.ezh.ezauth.user.repository.UserRepository;
 import com.ezh.ezauth.user.repository.UserRoleRepository;
 import com.ezh.ezauth.utils.EmailService;
+import com.ezh.ezauth.utils.FutureUtil;
 import com.ezh.ezauth.utils.common.CommonResponse;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import com.ezh.ezauth.utils.common.Status;
 import com.ezh.ezauth.utils.exception.CommonException;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -48,11 +53,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -73,7 +75,11 @@ public class TenantService {
     private final SubscriptionRepository subscriptionRepository;
     private final TenantDetailsRepository detailsRepository;
     private final JwtTokenProvider jwtTokenProvider;
+    private final RefreshTokenStore refreshTokenStore;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
     private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AsyncLoadingCache<Long, TenantDto> tenantDtoCache;
 
 
     @Transactional
@@ -132,6 +138,7 @@ public class TenantService {
                 .build();
 
         subscriptionRepository.save(subscription);
+        eventPublisher.publishEvent(new SubscriptionChangedEvent(tenant.getId()));
         tenantRepository.save(tenant);
 
         //ADD ADDRESS (NEW LOGIC)
@@ -276,6 +283,7 @@ public class TenantService {
                 .orElseThrow(() -> new CommonException("Admin user not found", HttpStatus.NOT_FOUND));
 
         String roles = extractUserRoles(user);
+        RefreshTokenStore.IssuedRefreshToken issued = refreshTokenStore.issue(user.getId());
 
         String accessToken = jwtTokenProvider.generateAccessToken(
                 user.getId(),
@@ -285,9 +293,10 @@ public class TenantService {
                 user.getTenant().getTenantUuid(),
                 user.getUserType().name(),
                 roles,
-                user.getAccountScope().name()
+                user.getAccountScope().name(),
+                issued.familyId()
         );
-        String refreshToken = jwtTokenProvider.generateRefreshToken(user.getId());
+        String refreshToken = jwtTokenProvider.generateRefreshToken(user.getId(), issued.tokenId(), issued.familyId());
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
@@ -356,6 +365,11 @@ public class TenantService {
 
         tenant.setIsActive(!tenant.getIsActive());
         tenantRepository.save(tenant);
+        eventPublisher.publishEvent(new TenantChangedEvent(tenantId));
+        if (deactivating) {
+            // Covers users that cannot be deactivated individually, such as the SUPER_ADMIN.
+            tokenRevocationRegistry.revokeTenant(tenantId);
+        }
 
         String statusLabel = Boolean.TRUE.equals(tenant.getIsActive()) ? "Active" : "Inactive";
         return CommonResponse.builder()
@@ -381,6 +395,7 @@ public class TenantService {
 
         tenant.getAddresses().remove(addressToDelete);
         tenantRepository.save(tenant);
+        evictTenantDto(tenantId);
 
         return CommonResponse.builder()
                 .id(addressId.toString())
@@ -400,6 +415,7 @@ public class TenantService {
             if (admin != null) {
                 admin.setPhone(request.getAdminPhone());
                 userRepository.save(admin);
+                eventPublisher.publishEvent(new UserChangedEvent(admin.getId()));
             }
         }
 
@@ -408,6 +424,7 @@ public class TenantService {
         }
 
         tenantRepository.save(tenant);
+        eventPublisher.publishEvent(new TenantChangedEvent(tenantId));
 
         return CommonResponse
                 .builder()
@@ -416,27 +433,29 @@ public class TenantService {
                 .build();
     }
 
-    @Transactional(readOnly = true)
     public Page<TenantDto> getTenants(Integer page, Integer size) {
 
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Tenant> tenants = tenantRepository.findAll(pageable);
+        Page<Long> tenantIds = tenantRepository.findTenantIds(pageable);
+        Map<Long, TenantDto> tenants = FutureUtil.join(tenantDtoCache.getAll(tenantIds.getContent()));
 
-        return tenants.map(this::dtoConstructor);
+        return tenantIds.map(tenants::get);
     }
 
-
-    @Transactional(readOnly = true)
+    /**
+     * Tenant lookups go through tenantDtoCache: one load per tenant however many requests
+     * miss at once, with hot tenants refreshed in the background.
+     */
     public TenantDto getTenantById(Long tenantId) {
 
-        Tenant tenant = tenantRepository.findById(tenantId)
-                .orElseThrow(() -> new CommonException("Tenant not found", HttpStatus.NOT_FOUND));
-
-        return dtoConstructor(tenant);
+        TenantDto tenant = FutureUtil.join(tenantDtoCache.get(tenantId));
+        if (tenant == null) {
+            throw new CommonException("Tenant not found", HttpStatus.NOT_FOUND);
+        }
+        return tenant;
     }
 
-    @Transactional(readOnly = true)
     public Map<Long, TenantDto> getTenantsByIds(List<Long> tenantIds) {
 
         if (tenantIds == null || tenantIds.isEmpty()) {
@@ -447,16 +466,7 @@ public class TenantService {
 
         log.info("Fetching bulk data for {} unique tenant IDs", uniqueIds.size());
 
-        List<Tenant> tenants = tenantRepository.findByIdIn(uniqueIds.stream().toList());
-
-        return tenants.stream()
-                .map(this::dtoConstructor)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toMap(
-                        TenantDto::getId,
-                        Function.identity(),
-                        (existing, duplicate) -> existing
-                ));
+        return FutureUtil.join(tenantDtoCache.getAll(uniqueIds));
     }
 
     @Transactional
@@ -503,12 +513,13 @@ public class TenantService {
                 .build();
 
         subscriptionRepository.save(subscription);
+        eventPublisher.publishEvent(new SubscriptionChangedEvent(tenant.getId()));
 
         // 5. Create User (No Password)
         User adminUser = User.builder()
                 .fullName(fullName)
                 .email(email)
-                .passwordHash(passwordEncoder.encode("GOOGLE_AUTH_USER"))
+                .passwordHash(PasswordHashing.SSO_ONLY)
                 .isActive(true)
                 .tenant(tenant)
                 .build();
@@ -577,6 +588,7 @@ public class TenantService {
         details.setTenant(tenant);
 
         TenantDetails saved = detailsRepository.save(details);
+        evictTenantDto(tenantId);
 
         return CommonResponse.builder()
                 .id(saved.getId().toString())
@@ -604,6 +616,7 @@ public class TenantService {
         details.setLogoUrl(dto.getLogoUrl());
 
         TenantDetails updated = detailsRepository.save(details);
+        evictTenantDto(tenantId);
 
         return CommonResponse.builder()
                 .id(updated.getId().toString())
@@ -617,7 +630,7 @@ public class TenantService {
     public TenantDetailsDto getTenantDetailsByTenantId(Long tenantId) throws CommonException {
         // We fetch by tenantId directly using the repository method
         return detailsRepository.findByTenantId(tenantId)
-                .map(this::mapEntityToDto)
+                .map(TenantDtoLoader::mapEntityToDto)
                 .orElseThrow(() -> new CommonException("No business details found for Tenant ID: " + tenantId, HttpStatus.NOT_FOUND));
     }
 
@@ -653,6 +666,7 @@ public class TenantService {
 
         tenant.getAddresses().add(address);
         tenantRepository.save(tenant);
+        evictTenantDto(tenantId);
 
         return CommonResponse.builder()
                 .id(String.valueOf(address.getId()))
@@ -694,6 +708,7 @@ public class TenantService {
         address.setAddressType(dto.getType());
 
         tenantRepository.save(tenant);
+        evictTenantDto(tenantId);
 
         return CommonResponse.builder()
                 .id(String.valueOf(address.getId()))
@@ -702,6 +717,14 @@ public class TenantService {
                 .build();
     }
 
+    /** Evicts on every node once the transaction commits (see ClusteredCacheManager). */
+    private void evictTenantDto(Long tenantId) {
+        Cache cache = cacheManager.getCache("tenantDtoCache");
+        if (cache != null) {
+            cache.evict(tenantId);
+        }
+    }
+
     // Helper method to generate tenant code
     private String generateTenantCode(String tenantName) {
         String sanitized = tenantName.toUpperCase().replaceAll("[^A-Z0-9]", "");
@@ -710,114 +733,6 @@ public class TenantService {
     }
 
 
-    private TenantDto dtoConstructor(Tenant tenant) {
-
-        if (tenant == null) {
-            return null;
-        }
-
-        Set<AddressDto> addressDtos = null;
-        if (tenant.getAddresses() != null && !tenant.getAddresses().isEmpty()) {
-            addressDtos = tenant.getAddresses().stream()
-                    .map(addr -> AddressDto.builder()
-                            .id(addr.getId())
-                            .addressLine1(addr.getAddressLine1())
-                            .addressLine2(addr.getAddressLine2())
-                            .route(addr.getRoute())
-                            .area(addr.getArea())
-                            .city(addr.getCity())
-                            .state(addr.getState())
-                            .country(addr.getCountry())
-                            .pinCode(addr.getPinCode())
-                            .type(addr.getAddressType())
-                            .isPrimary(addr.getIsPrimary())
-                            .build())
-                    .collect(Collectors.toSet());
-        }
-
-        // Map Tenant Admin (User Entity -> UserMiniDto)
-        UserMiniDto adminDto = null;
-        if (tenant.getTenantAdmin() != null) {
-            adminDto = UserMiniDto.builder()
-                    .id(tenant.getTenantAdmin().getId())
-                    .UserUuid(tenant.getTenantAdmin().getUserUuid())
-                    .userType(tenant.getTenantAdmin().getUserType() != null ? tenant.getTenantAdmin().getUserType().toString() : null)
-                    .name(tenant.getTenantAdmin().getFullName())
-                    .email(tenant.getTenantAdmin().getEmail())
-                    .phone(tenant.getTenantAdmin().getPhone())
-                    .build();
-        }
-
-        // Map Applications (Application Entity -> ApplicationDto)
-        Set<ApplicationDto> applicationDtos = null;
-        if (tenant.getApplications() != null && !tenant.getApplications().isEmpty()) {
-            applicationDtos = tenant.getApplications().stream()
-                    .map(app -> ApplicationDto.builder()
-                            .id(app.getId())
-                            .appName(app.getAppName())
-                            .appKey(app.getAppKey())
-                            .description(app.getDescription())
-                            .isActive(app.getIsActive())
-                            .build())
-                    .collect(Collectors.toSet());
-        }
-
-        SubscriptionDto subscriptionDto = subscriptionRepository
-                .findPrimaryActiveSubscription(tenant.getId(), SubscriptionStatus.ACTIVE)
-                .map(this::mapToSubscriptionDto)
-                .orElse(null);
-
-        // Build and Return TenantDto
-        return TenantDto.builder()
-                .id(tenant.getId())
-                .tenantUuid(tenant.getTenantUuid())
-                .tenantName(tenant.getTenantName())
-                .tenantCode(tenant.getTenantCode())
-                .email(adminDto != null ? adminDto.getEmail() : null)
-                .phone(adminDto != null ? adminDto.getPhone() : null)
-                .isActive(tenant.getIsActive())
-                .tenantAdmin(adminDto)
-                .applications(applicationDtos)
-                .tenantAddress(addressDtos)
-                .tenantDetails(mapEntityToDto(tenant.getTenantDetails()))
-                .subscription(subscriptionDto)
-                .build();
-    }
-
-    private SubscriptionDto mapToSubscriptionDto(Subscription subscription) {
-        long daysRemaining = 0;
-        LocalDateTime now = LocalDateTime.now();
-        if (subscription.getEndDate() != null && now.isBefore(subscription.getEndDate())) {
-            daysRemaining = Duration.between(now, subscription.getEndDate()).toDays();
-        }
-
-        SubscriptionPlan plan = subscription.getPlan();
-        SubscriptionPlanDto planDto = SubscriptionPlanDto.builder()
-                .id(plan.getId())
-                .applicationId(plan.getApplication().getId())
-                .name(plan.getName())
-                .description(plan.getDescription())
-                .type(plan.getType())
-                .price(plan.getPrice())
-                .durationDays(plan.getDurationDays())
-                .maxUsers(plan.getMaxUsers())
-                .isActive(plan.getIsActive())
-                .build();
-
-        return SubscriptionDto.builder()
-                .id(subscription.getId())
-                .plan(planDto)
-                .status(subscription.getStatus())
-                .startDate(subscription.getStartDate())
-                .endDate(subscription.getEndDate())
-                .autoRenew(subscription.getAutoRenew())
-                .createdAt(subscription.getCreatedAt())
-                .isValid(subscription.isValid())
-                .daysRemaining(daysRemaining)
-                .build();
-    }
-
-
     /**
      * Helper to handle Address Upsert (Update if exists, Insert if new)
      */
@@ -872,19 +787,4 @@ public class TenantService {
                 .logoUrl(dto.getLogoUrl())
                 .build();
     }
-
-    private TenantDetailsDto mapEntityToDto(TenantDetails entity) {
-        return TenantDetailsDto.builder()
-                .legalName(entity.getLegalName())
-                .businessType(entity.getBusinessType())
-                .baseCurrency(entity.getBaseCurrency())
-                .timeZone(entity.getTimeZone())
-                .gstNumber(entity.getGstNumber())
-                .panNumber(entity.getPanNumber())
-                .supportEmail(entity.getSupportEmail())
-                .contactPhone(entity.getContactPhone())
-                .website(entity.getWebsite())
-                .logoUrl(entity.getLogoUrl())
-                .build();
-    }
 }
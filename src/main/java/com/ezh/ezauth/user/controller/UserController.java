@@ -1,5 +1,7 @@
 package com.ezh.ezauth.user.controller;
 
+import com.ezh.ezauth.security.Privileges;
+import com.ezh.ezauth.security.RequiresPrivilege;
 import com.ezh.ezauth.common.dto.AddressDto;
 import com.ezh.ezauth.user.dto.CreateUserRequest;
 import com.ezh.ezauth.utils.UserContextUtil;
@@ -8,6 +10,9 @@ import java.util.Set;
 import com.ezh.ezauth.user.dto.UserDto;
 import com.ezh.ezauth.user.dto.UserFilter;
 import com.ezh.ezauth.user.dto.UserMiniDto;
+import com.ezh.ezauth.user.dto.PermissionSnapshotDto;
+import com.ezh.ezauth.user.dto.PrivilegeIndexDto;
+import com.ezh.ezauth.user.service.PermissionService;
 import com.ezh.ezauth.user.service.UserService;
 import com.ezh.ezauth.utils.common.CommonResponse;
 import com.ezh.ezauth.utils.common.ResponseResource;
@@ -29,8 +34,10 @@ import java.util.Map;
 public class UserController {
 
     private final UserService userService;
+    private final PermissionService permissionService;
 
 
+    @RequiresPrivilege(Privileges.USER_MGMT_EDIT)
     @PostMapping(value = "/create", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> createUser(@Valid @RequestBody CreateUserRequest request) throws CommonException {
         log.info("Entered Creating new user with email: {}", request.getEmail());
@@ -38,6 +45,7 @@ public class UserController {
         return ResponseResource.success(HttpStatus.CREATED, response, "User created successfully");
     }
 
+    @RequiresPrivilege(Privileges.USER_MGMT_VIEW)
     @PostMapping(value = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<Page<UserDto>> getAllUsers(@RequestParam Integer page, @RequestParam Integer size,
                                                        @RequestBody UserFilter filter) throws CommonException {
@@ -56,6 +64,22 @@ public class UserController {
         return ResponseResource.success(HttpStatus.OK, response, "Bulk user fetched successfully");
     }
 
+    @GetMapping(value = "/permissions/index", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseResource<PrivilegeIndexDto> getPrivilegeIndex() throws CommonException {
+        log.info("Fetching privilege index");
+        PrivilegeIndexDto response = permissionService.getPrivilegeIndexDto();
+        return ResponseResource.success(HttpStatus.OK, response, "Privilege index fetched successfully");
+    }
+
+    @RequiresPrivilege(Privileges.USER_MGMT_VIEW)
+    @GetMapping(value = "/{userId}/permissions", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseResource<PermissionSnapshotDto> getUserPermissions(@PathVariable Long userId) throws CommonException {
+        log.info("Fetching permission snapshot for user ID: {}", userId);
+        PermissionSnapshotDto response = permissionService.getSnapshotDto(userId);
+        return ResponseResource.success(HttpStatus.OK, response, "User permissions fetched successfully");
+    }
+
+    @RequiresPrivilege(Privileges.USER_MGMT_VIEW)
     @GetMapping(value = "/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<UserDto> getUserById(@PathVariable Long userId) throws CommonException {
         log.info("Fetching user with ID: {}", userId);
@@ -63,6 +87,7 @@ public class UserController {
         return ResponseResource.success(HttpStatus.OK, response, "User fetched successfully");
     }
 
+    @RequiresPrivilege(Privileges.USER_MGMT_EDIT)
     @PutMapping(value = "/{userId}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> updateUser(@PathVariable Long userId, @Valid @RequestBody CreateUserRequest request) throws CommonException {
         log.info("Updating user with ID: {}", userId);
@@ -70,6 +95,7 @@ public class UserController {
         return ResponseResource.success(HttpStatus.OK, response, "User updated successfully");
     }
 
+    @RequiresPrivilege(Privileges.USER_MGMT_EDIT)
     @PutMapping(value = "/{userId}/toggle-status", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> toggleUserStatus(@PathVariable Long userId) throws CommonException {
         log.info("Deleting user with ID: {}", userId);
@@ -77,6 +103,7 @@ public class UserController {
         return ResponseResource.success(HttpStatus.OK, response, "User deleted successfully");
     }
 
+    @RequiresPrivilege(Privileges.USER_MGMT_VIEW)
     @PostMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<Page<UserDto>> searchUsers(
             @RequestParam(defaultValue = "0") Integer page,
@@ -87,6 +114,7 @@ public class UserController {
         return ResponseResource.success(HttpStatus.OK, response, "Users fetched successfully");
     }
 
+    @RequiresPrivilege(Privileges.USER_MGMT_EDIT)
     @PostMapping(value = "/{userId}/address", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> addUserAddress(@PathVariable Long userId, @RequestBody AddressDto request) throws CommonException {
         log.info("Adding address for user with ID: {}", userId);
@@ -94,6 +122,7 @@ public class UserController {
         return ResponseResource.success(HttpStatus.CREATED, response, "User address created successfully");
     }
 
+    @RequiresPrivilege(Privileges.USER_MGMT_EDIT)
     @PutMapping(value = "/{userId}/address/{addressId}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> updateUserAddress(@PathVariable Long userId, @PathVariable Long addressId, @RequestBody AddressDto request) throws CommonException {
         log.info("Updating address for user with ID: {} and addressId: {}", userId, addressId);
@@ -109,6 +138,7 @@ public class UserController {
         return ResponseResource.success(HttpStatus.OK, response, "Current user fetched successfully");
     }
 
+    @RequiresPrivilege(Privileges.USER_MGMT_VIEW)
     @GetMapping(value = "/{userId}/addresses", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<Set<AddressDto>> getUserAddresses(@PathVariable Long userId) throws CommonException {
         log.info("Fetching addresses for user ID: {}", userId);
@@ -116,6 +146,7 @@ public class UserController {
         return ResponseResource.success(HttpStatus.OK, response, "User addresses fetched successfully");
     }
 
+    @RequiresPrivilege(Privileges.USER_MGMT_EDIT)
     @DeleteMapping(value = "/{userId}/address/{addressId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseResource<CommonResponse> deleteUserAddress(
             @PathVariable Long userId,
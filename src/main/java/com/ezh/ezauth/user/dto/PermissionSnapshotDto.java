@@ -0,0 +1,18 @@
+package com.ezh.ezauth.user.dto;
+
+import lombok.*;
+
+/**
+ * Compact privilege grants: bit i of {@code bits} (base64 of little-endian bytes)
+ * is set when the user holds {@code PrivilegeIndexDto.keys[i]} of the same index version.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PermissionSnapshotDto {
+    private Long userId;
+    private String indexVersion;
+    private String bits;
+}
@@ -0,0 +1,15 @@
+package com.ezh.ezauth.user.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PrivilegeIndexDto {
+    private String version;
+    private List<String> keys;
+}
@@ -4,6 +4,8 @@ import com.ezh.ezauth.subscription.dto.MiniSubscriptionDto;
 import com.ezh.ezauth.tenant.entity.Tenant;
 import lombok.*;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.Set;
 
 @Getter
@@ -11,7 +13,10 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class UserInitResponse {
+public class UserInitResponse implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private Long id;
     private String userUuid;
     private String fullName;
@@ -6,6 +6,7 @@ import com.ezh.ezauth.tenant.entity.Tenant;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -65,6 +66,11 @@ public class User {
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
+    // Only ever changed by the atomic UPDATEs in UserRepository; never written from the entity.
+    @ColumnDefault("0")
+    @Column(name = "permission_version", nullable = false, insertable = false, updatable = false)
+    private Long permissionVersion;
+
     // Tenant
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "tenant_id", nullable = false)
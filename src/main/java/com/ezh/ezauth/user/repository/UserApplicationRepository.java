@@ -2,9 +2,27 @@ package com.ezh.ezauth.user.repository;
 
 
 import com.ezh.ezauth.user.entity.UserApplication;
+import com.ezh.ezauth.user.repository.projection.UserInitGrantProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface UserApplicationRepository extends JpaRepository<UserApplication, Long> {
+
+    @Query("""
+            SELECT ua.id AS userApplicationId, a.appKey AS appKey, a.appName AS appName,
+                   m.moduleKey AS moduleKey, p.privilegeKey AS privilegeKey
+            FROM UserApplication ua
+            JOIN ua.application a
+            LEFT JOIN ua.modulePrivileges ump ON ump.isActive = true
+            LEFT JOIN ump.privilege p
+            LEFT JOIN p.module m
+            WHERE ua.user.id = :userId
+              AND ua.isActive = true
+            """)
+    List<UserInitGrantProjection> findUserInitGrants(@Param("userId") Long userId);
 }
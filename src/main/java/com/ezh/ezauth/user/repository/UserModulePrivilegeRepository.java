@@ -27,4 +27,14 @@ public interface UserModulePrivilegeRepository extends JpaRepository<UserModuleP
             @Param("moduleId") Long moduleId,
             @Param("userApplicationId") Long userApplicationId
     );
+
+    @Query("""
+            SELECT ump.privilege.id
+            FROM UserModulePrivilege ump
+            JOIN ump.userApplication ua
+            WHERE ua.user.id = :userId
+              AND ua.isActive = true
+              AND ump.isActive = true
+            """)
+    List<Long> findActivePrivilegeIdsByUserId(@Param("userId") Long userId);
 }
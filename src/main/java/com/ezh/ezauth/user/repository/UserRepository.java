@@ -3,14 +3,19 @@ package com.ezh.ezauth.user.repository;
 import com.ezh.ezauth.user.dto.UserMiniDto;
 import com.ezh.ezauth.user.entity.User;
 import com.ezh.ezauth.user.entity.UserType;
+import com.ezh.ezauth.user.repository.projection.UserInitProjection;
 import com.ezh.ezauth.user.repository.projection.UserMiniProjection;
+import com.ezh.ezauth.user.repository.projection.UserVersionProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +24,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
 
+    /**
+     * Everything sign-in needs, including the roles for the token claims, in one SELECT.
+     * Tenant.tenantDetails is an inverse one-to-one and cannot be lazy, so it is fetched
+     * here rather than by a second query.
+     */
+    @Query("""
+            SELECT u FROM User u
+            JOIN FETCH u.tenant t
+            LEFT JOIN FETCH t.tenantDetails
+            LEFT JOIN FETCH u.userRoles ur
+            LEFT JOIN FETCH ur.role
+            WHERE u.email = :email
+            """)
+    Optional<User> findForSignIn(@Param("email") String email);
+
     Optional<User> findByIdAndTenant_Id(Long id, Long tenantId);
 
     List<User> findByTenant_Id(Long tenantId);
@@ -27,10 +47,39 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     long countByTenant_IdAndIsActive(Long tenantId, Boolean isActive);
 
+    @Query("SELECT u.permissionVersion FROM User u WHERE u.id = :userId")
+    Optional<Long> findPermissionVersionById(@Param("userId") Long userId);
+
+    @Query("SELECT u.id AS id, u.permissionVersion AS permissionVersion FROM User u WHERE u.id IN :userIds")
+    List<UserVersionProjection> findPermissionVersionsByIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /** Conditional on the old hash, so a password changed in the meantime is never overwritten. */
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :newHash WHERE u.id = :userId AND u.passwordHash = :oldHash")
+    int replacePasswordHash(@Param("userId") Long userId,
+                            @Param("oldHash") String oldHash,
+                            @Param("newHash") String newHash);
+
+    @Modifying
+    @Query("UPDATE User u SET u.permissionVersion = u.permissionVersion + 1 WHERE u.id = :userId")
+    int bumpPermissionVersion(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE User u SET u.permissionVersion = u.permissionVersion + 1 " +
+            "WHERE u.id IN (SELECT ur.user.id FROM UserRole ur WHERE ur.role.id = :roleId)")
+    int bumpPermissionVersionByRoleId(@Param("roleId") Long roleId);
+
+    @Modifying
+    @Query("UPDATE User u SET u.permissionVersion = u.permissionVersion + 1 WHERE u.tenant.id = :tenantId")
+    int bumpPermissionVersionByTenantId(@Param("tenantId") Long tenantId);
+
     long countByBranch_Id(Long branchId);
 
     List<User> findByBranch_IdAndTenant_Id(Long branchId, Long tenantId);
 
+    @Query("SELECT u.tenant.id FROM User u WHERE u.id = :userId")
+    Optional<Long> findTenantIdById(@Param("userId") Long userId);
+
     @Query(value = """
             SELECT 
                 u.id, 
@@ -44,8 +93,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
             """, nativeQuery = true)
     List<UserMiniProjection> findUserMini(@Param("userIds") List<Long> userIds);
 
-    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.addresses WHERE u.id IN :userIds")
-    List<User> findUsersWithAddressesByIds(@Param("userIds") List<Long> userIds);
+    @Query("""
+            SELECT u.id AS id, u.userUuid AS userUuid, u.fullName AS fullName, u.email AS email,
+                   u.phone AS phone, u.userType AS userType, u.isActive AS isActive,
+                   t.id AS tenantId, t.tenantName AS tenantName, r.roleKey AS roleKey
+            FROM User u
+            JOIN u.tenant t
+            LEFT JOIN u.userRoles ur ON ur.isActive = true AND (ur.expiresAt IS NULL OR ur.expiresAt > :now)
+            LEFT JOIN ur.role r
+            WHERE u.id = :userId
+            """)
+    List<UserInitProjection> findUserInit(@Param("userId") Long userId, @Param("now") LocalDateTime now);
 
     @Query("""
                 SELECT u FROM User u
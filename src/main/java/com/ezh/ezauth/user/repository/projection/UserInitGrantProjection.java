@@ -0,0 +1,13 @@
+package com.ezh.ezauth.user.repository.projection;
+
+/**
+ * One row per active privilege of an active user application
+ * (or a single row with null module/privilege keys when it has none).
+ */
+public interface UserInitGrantProjection {
+    Long getUserApplicationId();
+    String getAppKey();
+    String getAppName();
+    String getModuleKey();
+    String getPrivilegeKey();
+}
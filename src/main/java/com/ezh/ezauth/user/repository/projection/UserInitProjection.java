@@ -0,0 +1,19 @@
+package com.ezh.ezauth.user.repository.projection;
+
+import com.ezh.ezauth.user.entity.UserType;
+
+/**
+ * One row per active role of the user (or a single row with a null roleKey).
+ */
+public interface UserInitProjection {
+    Long getId();
+    String getUserUuid();
+    String getFullName();
+    String getEmail();
+    String getPhone();
+    UserType getUserType();
+    Boolean getIsActive();
+    Long getTenantId();
+    String getTenantName();
+    String getRoleKey();
+}
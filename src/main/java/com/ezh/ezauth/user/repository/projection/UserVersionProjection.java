@@ -0,0 +1,6 @@
+package com.ezh.ezauth.user.repository.projection;
+
+public interface UserVersionProjection {
+    Long getId();
+    Long getPermissionVersion();
+}
@@ -0,0 +1,178 @@
+package com.ezh.ezauth.user.service;
+
+import com.ezh.ezauth.common.repository.PrivilegeRepository;
+import com.ezh.ezauth.tenant.repository.TenantRepository;
+import com.ezh.ezauth.user.dto.PermissionSnapshotDto;
+import com.ezh.ezauth.user.dto.PrivilegeIndexDto;
+import com.ezh.ezauth.user.repository.UserModulePrivilegeRepository;
+import com.ezh.ezauth.user.repository.UserRepository;
+import com.ezh.ezauth.utils.UserContextUtil;
+import com.ezh.ezauth.utils.exception.CommonException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compiles each user's active privilege grants into a {@link PermissionSnapshot}
+ * so privilege checks are a single bit test.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PermissionService {
+
+    public static final String PERMISSION_CACHE = "permissionCache";
+
+    // Privileges are seeded by migrations, so the index rarely changes; rebuild it periodically.
+    private static final long INDEX_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final PrivilegeRepository privilegeRepository;
+    private final UserModulePrivilegeRepository userModulePrivilegeRepository;
+    private final UserRepository userRepository;
+    private final TenantRepository tenantRepository;
+    private final CacheManager cacheManager;
+    private final ExecutorService cacheLoaderExecutor;
+
+    private volatile PrivilegeIndex privilegeIndex;
+    private final AtomicBoolean indexRefreshing = new AtomicBoolean();
+
+    /**
+     * The first call loads the index; after that a stale index keeps being served while
+     * a background rebuild runs, so privilege checks never wait on the database.
+     */
+    public PrivilegeIndex getPrivilegeIndex() {
+        PrivilegeIndex index = privilegeIndex;
+        if (index == null) {
+            return rebuildPrivilegeIndex(null);
+        }
+        if (System.currentTimeMillis() - index.getBuiltAt() > INDEX_TTL_MILLIS
+                && indexRefreshing.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    rebuildPrivilegeIndex(index);
+                } catch (Exception e) {
+                    log.warn("Privilege index refresh failed: {}", e.getMessage());
+                } finally {
+                    indexRefreshing.set(false);
+                }
+            }, cacheLoaderExecutor);
+        }
+        return index;
+    }
+
+    private synchronized PrivilegeIndex rebuildPrivilegeIndex(PrivilegeIndex stale) {
+        if (privilegeIndex != stale) {
+            return privilegeIndex;
+        }
+        PrivilegeIndex index = PrivilegeIndex.build(privilegeRepository.findPrivilegeIndex());
+        if (stale == null || !stale.getVersion().equals(index.getVersion())) {
+            log.info("Loaded privilege index version {} with {} privileges", index.getVersion(), index.size());
+        }
+        privilegeIndex = index;
+        return index;
+    }
+
+    public PermissionSnapshot getSnapshot(Long userId) throws CommonException {
+        PrivilegeIndex index = getPrivilegeIndex();
+        Cache cache = cacheManager.getCache(PERMISSION_CACHE);
+        if (cache == null) {
+            return buildSnapshot(userId, index);
+        }
+
+        PermissionSnapshot snapshot;
+        try {
+            snapshot = cache.get(userId, () -> buildSnapshot(userId, index));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof CommonException commonException) {
+                throw commonException;
+            }
+            throw e;
+        }
+        if (snapshot != null && !index.getVersion().equals(snapshot.getIndexVersion())) {
+            // Built against an older index: bit positions may have moved.
+            snapshot = buildSnapshot(userId, index);
+            cache.put(userId, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Evaluates a {@code MODULE_KEY:PRIVILEGE_KEY} requirement in each application of the user's
+     * tenant. Passes if the privilege is granted in any of them. A tenant none of whose applications
+     * has the module is not subject to the requirement, so the check passes as well.
+     */
+    public boolean passesPrivilegeCheck(Long userId, String privilegeKey) throws CommonException {
+        PrivilegeIndex index = getPrivilegeIndex();
+        PermissionSnapshot snapshot = getSnapshot(userId);
+        boolean applies = false;
+        for (int bit : index.bitsOf(privilegeKey)) {
+            if (snapshot.hasApplication(index.appKeyOf(bit))) {
+                if (snapshot.has(bit)) {
+                    return true;
+                }
+                applies = true;
+            }
+        }
+        return !applies;
+    }
+
+    /**
+     * Snapshot for the API; users outside the caller's tenant are reported as not found
+     * unless the caller is a platform user.
+     */
+    public PermissionSnapshotDto getSnapshotDto(Long userId) throws CommonException {
+        PermissionSnapshot snapshot = getSnapshot(userId);
+        if (!UserContextUtil.isPlatformUser()
+                && !snapshot.getTenantId().equals(UserContextUtil.getTenantIdOrThrow())) {
+            throw new CommonException("User not found", HttpStatus.NOT_FOUND);
+        }
+        return PermissionSnapshotDto.builder()
+                .userId(snapshot.getUserId())
+                .indexVersion(snapshot.getIndexVersion())
+                .bits(Base64.getEncoder().encodeToString(snapshot.toByteArray()))
+                .build();
+    }
+
+    public PrivilegeIndexDto getPrivilegeIndexDto() {
+        PrivilegeIndex index = getPrivilegeIndex();
+        return PrivilegeIndexDto.builder()
+                .version(index.getVersion())
+                .keys(index.getKeys())
+                .build();
+    }
+
+    public void evict(Long userId) {
+        Cache cache = cacheManager.getCache(PERMISSION_CACHE);
+        if (cache != null) {
+            cache.evict(userId);
+        }
+    }
+
+    private PermissionSnapshot buildSnapshot(Long userId, PrivilegeIndex index) throws CommonException {
+        Long tenantId = userRepository.findTenantIdById(userId)
+                .orElseThrow(() -> new CommonException("User not found", HttpStatus.NOT_FOUND));
+
+        Set<String> appKeys = tenantRepository.findAppKeysByTenantId(tenantId);
+        List<Long> privilegeIds = userModulePrivilegeRepository.findActivePrivilegeIdsByUserId(userId);
+        BitSet bits = new BitSet(index.size());
+        for (Long privilegeId : privilegeIds) {
+            int bit = index.bitOfPrivilegeId(privilegeId);
+            if (bit >= 0) {
+                bits.set(bit);
+            }
+        }
+        return new PermissionSnapshot(userId, tenantId, index.getVersion(), appKeys, bits);
+    }
+}
@@ -0,0 +1,59 @@
+package com.ezh.ezauth.user.service;
+
+import java.util.BitSet;
+import java.util.Set;
+
+/**
+ * A user's active privilege grants compiled into a bitset over a {@link PrivilegeIndex}.
+ * Immutable; only valid against the index version it was built with.
+ */
+public final class PermissionSnapshot {
+
+    private final Long userId;
+    private final Long tenantId;
+    private final String indexVersion;
+    private final Set<String> appKeys;
+    private final long[] words;
+
+    /**
+     * @param appKeys the applications of the user's tenant, which decide where a privilege key applies
+     */
+    public PermissionSnapshot(Long userId, Long tenantId, String indexVersion, Set<String> appKeys, BitSet bits) {
+        this.userId = userId;
+        this.tenantId = tenantId;
+        this.indexVersion = indexVersion;
+        this.appKeys = Set.copyOf(appKeys);
+        this.words = bits.toLongArray();
+    }
+
+    public boolean has(int bit) {
+        if (bit < 0) {
+            return false;
+        }
+        int word = bit >>> 6;
+        return word < words.length && (words[word] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Little-endian bytes of the bitset, as produced by {@link BitSet#toByteArray()}.
+     */
+    public byte[] toByteArray() {
+        return BitSet.valueOf(words).toByteArray();
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getTenantId() {
+        return tenantId;
+    }
+
+    public String getIndexVersion() {
+        return indexVersion;
+    }
+
+    public boolean hasApplication(String appKey) {
+        return appKeys.contains(appKey);
+    }
+}
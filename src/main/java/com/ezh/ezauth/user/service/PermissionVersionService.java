@@ -0,0 +1,84 @@
+package com.ezh.ezauth.user.service;
+
+import com.ezh.ezauth.common.event.RoleChangedEvent;
+import com.ezh.ezauth.common.event.TenantChangedEvent;
+import com.ezh.ezauth.common.event.UserChangedEvent;
+import com.ezh.ezauth.user.repository.UserRepository;
+import com.ezh.ezauth.utils.exception.CommonException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * Per-user version stamp used in the userInitCache key.
+ * <p>
+ * Bumped in the same transaction as the change that publishes the event, so the new
+ * version becomes visible exactly when the new data does. The current value is cached
+ * in {@link #VERSION_CACHE}, which {@link UserCacheInvalidator} evicts after commit.
+ * <p>
+ * The listeners fall back like {@link com.ezh.ezauth.cluster.DomainEventRelay} does, but
+ * only to fail: an event published outside a transaction would be relayed without its
+ * bump, so the publisher gets an exception instead of a silently stale version.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PermissionVersionService {
+
+    public static final String VERSION_CACHE = "permissionVersionCache";
+
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+
+    public long current(Long userId) throws CommonException {
+        Cache cache = cacheManager.getCache(VERSION_CACHE);
+        if (cache == null) {
+            return load(userId);
+        }
+        try {
+            return cache.get(userId, () -> load(userId));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof CommonException commonException) {
+                throw commonException;
+            }
+            throw e;
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        requireTransaction(event);
+        userRepository.bumpPermissionVersion(event.userId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onRoleChanged(RoleChangedEvent event) {
+        requireTransaction(event);
+        int updated = userRepository.bumpPermissionVersionByRoleId(event.roleId());
+        log.debug("Bumped permission version of {} users holding role {}", updated, event.roleId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onTenantChanged(TenantChangedEvent event) {
+        requireTransaction(event);
+        int updated = userRepository.bumpPermissionVersionByTenantId(event.tenantId());
+        log.debug("Bumped permission version of {} users in tenant {}", updated, event.tenantId());
+    }
+
+    private static void requireTransaction(Object event) {
+        Assert.state(TransactionSynchronizationManager.isActualTransactionActive(),
+                () -> event + " must be published inside the transaction that makes the change");
+    }
+
+    private long load(Long userId) throws CommonException {
+        return userRepository.findPermissionVersionById(userId)
+                .orElseThrow(() -> new CommonException("User not found", HttpStatus.NOT_FOUND));
+    }
+}
@@ -0,0 +1,125 @@
+package com.ezh.ezauth.user.service;
+
+import com.ezh.ezauth.common.repository.projection.PrivilegeIndexProjection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Global, immutable ordering of every privilege as {@code APP_KEY:MODULE_KEY:PRIVILEGE_KEY}.
+ * Module keys are only unique within an application, so the application is part of the key.
+ * A privilege's position in this index is its bit in a {@link PermissionSnapshot}.
+ * The version is a checksum of the ordered contents, so every node that loads the
+ * same privilege table agrees on it.
+ */
+public final class PrivilegeIndex {
+
+    private final List<String> keys;
+    private final List<String> appKeyByBit;
+    private final Map<String, Integer> bitByKey;
+    private final Map<String, int[]> bitsByAppRelativeKey;
+    private final Map<Long, Integer> bitByPrivilegeId;
+    private final String version;
+    private final long builtAt;
+
+    private PrivilegeIndex(List<String> keys, List<String> appKeyByBit, Map<String, Integer> bitByKey, Map<String, int[]> bitsByAppRelativeKey,
+                           Map<Long, Integer> bitByPrivilegeId, String version) {
+        this.keys = keys;
+        this.appKeyByBit = appKeyByBit;
+        this.bitByKey = bitByKey;
+        this.bitsByAppRelativeKey = bitsByAppRelativeKey;
+        this.bitByPrivilegeId = bitByPrivilegeId;
+        this.version = version;
+        this.builtAt = System.currentTimeMillis();
+    }
+
+    public static PrivilegeIndex build(List<PrivilegeIndexProjection> privileges) {
+        List<String> keys = new ArrayList<>(privileges.size());
+        List<String> appKeyByBit = new ArrayList<>(privileges.size());
+        Map<String, Integer> bitByKey = new HashMap<>();
+        Map<String, int[]> bitsByAppRelativeKey = new HashMap<>();
+        Map<Long, Integer> bitByPrivilegeId = new HashMap<>();
+        CRC32 checksum = new CRC32();
+
+        for (PrivilegeIndexProjection privilege : privileges) {
+            String key = toKey(privilege.getAppKey(), privilege.getModuleKey(), privilege.getPrivilegeKey());
+            int bit = keys.size();
+            if (bitByKey.putIfAbsent(key, bit) != null) {
+                // The schema's unique keys rule this out; two bits for one key would make checks order-dependent.
+                throw new IllegalStateException("Duplicate privilege key " + key);
+            }
+            keys.add(key);
+            appKeyByBit.add(privilege.getAppKey());
+            bitsByAppRelativeKey.merge(toKey(privilege.getModuleKey(), privilege.getPrivilegeKey()),
+                    new int[]{bit}, PrivilegeIndex::concat);
+            bitByPrivilegeId.put(privilege.getId(), bit);
+            checksum.update((privilege.getId() + "=" + key + ";").getBytes(StandardCharsets.UTF_8));
+        }
+
+        String version = Long.toHexString(checksum.getValue()) + "-" + keys.size();
+        return new PrivilegeIndex(List.copyOf(keys), List.copyOf(appKeyByBit), Map.copyOf(bitByKey),
+                Map.copyOf(bitsByAppRelativeKey), Map.copyOf(bitByPrivilegeId), version);
+    }
+
+    public static String toKey(String appKey, String moduleKey, String privilegeKey) {
+        return appKey + ":" + toKey(moduleKey, privilegeKey);
+    }
+
+    /** The application-relative form used by {@link com.ezh.ezauth.security.RequiresPrivilege}. */
+    public static String toKey(String moduleKey, String privilegeKey) {
+        return moduleKey + ":" + privilegeKey;
+    }
+
+    /**
+     * @return the bit for {@code APP_KEY:MODULE_KEY:PRIVILEGE_KEY}, or -1 if no such privilege exists
+     */
+    public int bitOf(String key) {
+        Integer bit = bitByKey.get(key);
+        return bit != null ? bit : -1;
+    }
+
+    /**
+     * @return the bits of {@code MODULE_KEY:PRIVILEGE_KEY} in every application that defines it, in bit order;
+     *         shared with the index, so callers must not modify it
+     */
+    public int[] bitsOf(String appRelativeKey) {
+        int[] bits = bitsByAppRelativeKey.get(appRelativeKey);
+        return bits != null ? bits : new int[0];
+    }
+
+    public String appKeyOf(int bit) {
+        return appKeyByBit.get(bit);
+    }
+
+    public int bitOfPrivilegeId(Long privilegeId) {
+        Integer bit = bitByPrivilegeId.get(privilegeId);
+        return bit != null ? bit : -1;
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        int[] both = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, both, first.length, second.length);
+        return both;
+    }
+
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.ezh.ezauth.user.service;
+
+import com.ezh.ezauth.common.dto.AddressDto;
+import com.ezh.ezauth.common.entity.EntityType;
+import com.ezh.ezauth.common.repository.AddressRepository;
+import com.ezh.ezauth.common.repository.projection.AddressProjection;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads userAddressCache from one flat address query per batch. Every requested id gets
+ * an entry, empty when the user has no addresses, so those are cached too.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserAddressLoader implements CacheLoader<Long, List<AddressDto>> {
+
+    private final AddressRepository addressRepository;
+
+    @Override
+    public List<AddressDto> load(Long userId) {
+        return loadAll(Set.of(userId)).get(userId);
+    }
+
+    @Override
+    public Map<Long, List<AddressDto>> loadAll(Set<? extends Long> userIds) {
+        Map<Long, List<AddressDto>> grouped = new HashMap<>(userIds.size());
+        for (AddressProjection p : addressRepository.findAddressesByEntityIds(EntityType.USER, new ArrayList<>(userIds))) {
+            grouped.computeIfAbsent(p.getEntityId(), id -> new ArrayList<>()).add(p.toDto());
+        }
+
+        Map<Long, List<AddressDto>> result = new HashMap<>(userIds.size());
+        for (Long userId : userIds) {
+            result.put(userId, List.copyOf(grouped.getOrDefault(userId, List.of())));
+        }
+        return result;
+    }
+}
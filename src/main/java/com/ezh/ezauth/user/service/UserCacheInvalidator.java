@@ -0,0 +1,49 @@
+package com.ezh.ezauth.user.service;
+
+import com.ezh.ezauth.cluster.ClusterEvent;
+import com.ezh.ezauth.cluster.ClusteredCacheManager;
+import com.ezh.ezauth.common.event.RoleChangedEvent;
+import com.ezh.ezauth.common.event.TenantChangedEvent;
+import com.ezh.ezauth.common.event.UserChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops user-scoped cache entries when a committed change reaches this node.
+ * <p>
+ * userInitCache is keyed by permission version and is never evicted here: dropping the
+ * cached version is enough to make the old entry unreachable. A role or tenant maps to
+ * many users, so those events clear the version cache; they are rare admin operations.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserCacheInvalidator {
+
+    private final ClusteredCacheManager cacheManager;
+
+    @EventListener
+    public void onUserChanged(ClusterEvent<UserChangedEvent> event) {
+        Long userId = event.event().userId();
+        cacheManager.evictLocal(PermissionVersionService.VERSION_CACHE, userId);
+        cacheManager.evictLocal("userMiniCache", userId);
+        cacheManager.evictLocal("userAddressCache", userId);
+        cacheManager.evictLocal(PermissionService.PERMISSION_CACHE, userId);
+    }
+
+    @EventListener
+    public void onRoleChanged(ClusterEvent<RoleChangedEvent> event) {
+        log.debug("Role {} changed, clearing {}", event.event().roleId(), PermissionVersionService.VERSION_CACHE);
+        cacheManager.clearLocal(PermissionVersionService.VERSION_CACHE);
+    }
+
+    @EventListener
+    public void onTenantChanged(ClusterEvent<TenantChangedEvent> event) {
+        log.debug("Tenant {} changed, clearing {}", event.event().tenantId(), PermissionVersionService.VERSION_CACHE);
+        cacheManager.clearLocal(PermissionVersionService.VERSION_CACHE);
+        // Snapshots carry the tenant's applications, which this change may have altered.
+        cacheManager.clearLocal(PermissionService.PERMISSION_CACHE);
+    }
+}
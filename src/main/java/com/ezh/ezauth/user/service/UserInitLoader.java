@@ -0,0 +1,99 @@
+package com.ezh.ezauth.user.service;
+
+import com.ezh.ezauth.user.dto.UserApplicationDto;
+import com.ezh.ezauth.user.dto.UserInitResponse;
+import com.ezh.ezauth.user.repository.UserApplicationRepository;
+import com.ezh.ezauth.user.repository.UserRepository;
+import com.ezh.ezauth.user.repository.projection.UserInitGrantProjection;
+import com.ezh.ezauth.user.repository.projection.UserInitProjection;
+import com.ezh.ezauth.utils.exception.CommonException;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Loads userInitCache entries, keyed {@code userId:permissionVersion}.
+ * <p>
+ * The version only selects the entry; the payload always reflects the current rows.
+ * Background refreshes therefore also pick up role assignments that expired since the
+ * entry was loaded.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserInitLoader implements CacheLoader<String, UserInitResponse> {
+
+    private final UserRepository userRepository;
+    private final UserApplicationRepository userApplicationRepository;
+
+    public static String key(Long userId, long permissionVersion) {
+        return userId + ":" + permissionVersion;
+    }
+
+    /**
+     * Assembles the init payload from two flat projections (user + tenant + active roles,
+     * then active applications + active privileges) instead of walking lazy associations.
+     */
+    @Override
+    public UserInitResponse load(String key) {
+        Long userId = Long.valueOf(key.substring(0, key.indexOf(':')));
+        log.info("Fetching User Init Data from Database (Cache Miss)");
+
+        List<UserInitProjection> rows = userRepository.findUserInit(userId, LocalDateTime.now());
+        if (rows.isEmpty()) {
+            throw new CommonException("User not found", HttpStatus.NOT_FOUND);
+        }
+
+        UserInitProjection user = rows.get(0);
+        if (!user.getIsActive()) {
+            throw new CommonException("Account is inactive. Contact your administrator.", HttpStatus.FORBIDDEN);
+        }
+
+        Set<String> roles = rows.stream()
+                .map(UserInitProjection::getRoleKey)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<Long, UserApplicationDto> applications = new LinkedHashMap<>();
+        for (UserInitGrantProjection grant : userApplicationRepository.findUserInitGrants(userId)) {
+            UserApplicationDto app = applications.computeIfAbsent(grant.getUserApplicationId(), id -> UserApplicationDto.builder()
+                    .id(id)
+                    .appKey(grant.getAppKey())
+                    .appName(grant.getAppName())
+                    .isActive(true)
+                    .modulePrivileges(new HashMap<>())
+                    .build());
+            if (grant.getModuleKey() != null && grant.getPrivilegeKey() != null) {
+                app.getModulePrivileges()
+                        .computeIfAbsent(grant.getModuleKey(), k -> new HashSet<>())
+                        .add(grant.getPrivilegeKey());
+            }
+        }
+
+        return UserInitResponse.builder()
+                .id(user.getId())
+                .userUuid(user.getUserUuid())
+                .fullName(user.getFullName())
+                .email(user.getEmail())
+                .phone(user.getPhone())
+                .userType(user.getUserType().toString())
+                .isActive(user.getIsActive())
+                .tenantName(user.getTenantName())
+                .tenantId(user.getTenantId())
+                .userApplications(new HashSet<>(applications.values()))
+                .userRoles(roles)
+                .build();
+    }
+}
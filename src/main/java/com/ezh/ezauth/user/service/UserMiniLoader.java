@@ -0,0 +1,47 @@
+package com.ezh.ezauth.user.service;
+
+import com.ezh.ezauth.user.dto.UserMiniDto;
+import com.ezh.ezauth.user.repository.UserRepository;
+import com.ezh.ezauth.user.repository.projection.UserMiniProjection;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads userMiniCache. Misses from one {@code getAll} are fetched with a single IN query;
+ * ids that do not exist are simply absent from the result.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserMiniLoader implements CacheLoader<Long, UserMiniDto> {
+
+    private final UserRepository userRepository;
+
+    @Override
+    public UserMiniDto load(Long userId) {
+        return loadAll(Set.of(userId)).get(userId);
+    }
+
+    @Override
+    public Map<Long, UserMiniDto> loadAll(Set<? extends Long> userIds) {
+        List<UserMiniProjection> projections = userRepository.findUserMini(new ArrayList<>(userIds));
+        Map<Long, UserMiniDto> result = new HashMap<>(projections.size());
+        for (UserMiniProjection p : projections) {
+            result.put(p.getId(), UserMiniDto.builder()
+                    .id(p.getId())
+                    .userType(p.getUserType())
+                    .UserUuid(p.getUserUuid())
+                    .name(p.getFullName())
+                    .email(p.getEmail())
+                    .phone(p.getPhone())
+                    .build());
+        }
+        return result;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ezh.ezauth.user.service;
 
+import com.ezh.ezauth.auth.service.TokenRevocationRegistry;
 import com.ezh.ezauth.common.dto.AddressDto;
 import com.ezh.ezauth.common.entity.Address;
 import com.ezh.ezauth.common.entity.Application;
@@ -7,6 +8,7 @@ import com.ezh.ezauth.common.entity.EntityType;
 import com.ezh.ezauth.common.entity.Module;
 import com.ezh.ezauth.common.entity.Privilege;
 import com.ezh.ezauth.common.entity.Role;
+import com.ezh.ezauth.common.event.UserChangedEvent;
 import com.ezh.ezauth.common.repository.ApplicationRepository;
 import com.ezh.ezauth.common.repository.ModuleRepository;
 import com.ezh.ezauth.common.repository.PrivilegeRepository;
@@ -17,16 +19,15 @@ import com.ezh.ezauth.user.dto.*;
 import com.ezh.ezauth.user.entity.*;
 
 import com.ezh.ezauth.user.repository.UserRepository;
-import com.ezh.ezauth.user.repository.projection.UserMiniProjection;
+import com.ezh.ezauth.utils.FutureUtil;
 import com.ezh.ezauth.utils.UserContextUtil;
 import com.ezh.ezauth.utils.common.CommonResponse;
 import com.ezh.ezauth.utils.common.Status;
 import com.ezh.ezauth.utils.exception.CommonException;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -37,8 +38,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -54,46 +55,18 @@ public class UserService {
     private final PrivilegeRepository privilegeRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserTypeConfigService userTypeConfigService;
-    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final AsyncLoadingCache<String, UserInitResponse> userInitCache;
+    private final AsyncLoadingCache<Long, UserMiniDto> userMiniCache;
+    private final AsyncLoadingCache<Long, List<AddressDto>> userAddressCache;
 
-    public UserInitResponse getUserInitDetails(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new CommonException("User not found", HttpStatus.NOT_FOUND));
-
-        if (!user.getIsActive()) {
-            throw new CommonException("Account is inactive. Contact your administrator.", HttpStatus.FORBIDDEN);
-        }
-
-        Set<UserApplicationDto> applicationDtos = user.getUserApplications().stream()
-                .filter(UserApplication::getIsActive) // Only active applications
-                .map(ua -> UserApplicationDto.builder()
-                        .id(ua.getId())
-                        .appKey(ua.getApplication().getAppKey())
-                        .appName(ua.getApplication().getAppName())
-                        .isActive(ua.getIsActive())
-                        .modulePrivileges(groupModulePrivileges(ua))
-                        .build()
-                ).collect(Collectors.toSet());
-
-        Set<String> roles = user.getUserRoles().stream()
-                .filter(UserRole::getIsActive)
-                .filter(ur -> ur.getExpiresAt() == null || ur.getExpiresAt().isAfter(LocalDateTime.now()))
-                .map(ur -> ur.getRole().getRoleKey()) // or getRoleName()
-                .collect(Collectors.toSet());
-
-        return UserInitResponse.builder()
-                .id(user.getId())
-                .userUuid(user.getUserUuid())
-                .fullName(user.getFullName())
-                .email(user.getEmail())
-                .phone(user.getPhone())
-                .userType(user.getUserType().toString())
-                .isActive(user.getIsActive())
-                .tenantName(user.getTenant().getTenantName())
-                .tenantId(user.getTenant().getId())
-                .userApplications(applicationDtos)
-                .userRoles(roles)
-                .build();
+    /**
+     * Init payload from userInitCache, keyed by userId:permissionVersion. Concurrent misses
+     * for the same key share one load, and hot entries are refreshed in the background.
+     */
+    public UserInitResponse getUserInitDetails(Long userId, long permissionVersion) {
+        return FutureUtil.join(userInitCache.get(UserInitLoader.key(userId, permissionVersion)));
     }
 
     @Transactional
@@ -146,7 +119,6 @@ public class UserService {
     }
 
     @Transactional
-    @CacheEvict(value = "userInitCache", key = "#userId")
     public CommonResponse updateUser(Long userId, CreateUserRequest request) throws CommonException {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new CommonException("User not found", HttpStatus.NOT_FOUND));
@@ -165,6 +137,7 @@ public class UserService {
         syncUserAddresses(user, request.getAddress());
 
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
 
         return CommonResponse.builder()
                 .id(savedUser.getId().toString())
@@ -173,74 +146,34 @@ public class UserService {
                 .build();
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Both caches bulk-load their misses with one query each, and concurrent callers for
+     * the same ids share the in-flight load. Addresses come from their own cache and are
+     * merged into copies so cached records are never mutated.
+     */
     public Map<Long, UserMiniDto> getUsersMiniByIds(List<Long> userIds, boolean includeAddress) throws CommonException {
         if (userIds == null || userIds.isEmpty()) {
             return Collections.emptyMap();
         }
+        Set<Long> ids = userIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
 
-        // When addresses are requested, bypass cache and fetch full entities with JOIN FETCH
-        if (includeAddress) {
-            Map<Long, UserMiniDto> resultMap = new HashMap<>();
-            List<User> users = userRepository.findUsersWithAddressesByIds(userIds);
-            for (User user : users) {
-                List<AddressDto> addresses = user.getAddresses() == null ? Collections.emptyList() :
-                        user.getAddresses().stream()
-                                .map(this::mapToAddressDto)
-                                .collect(Collectors.toList());
-
-                UserMiniDto dto = UserMiniDto.builder()
-                        .id(user.getId())
-                        .userType(user.getUserType().toString())
-                        .UserUuid(user.getUserUuid())
-                        .name(user.getFullName())
-                        .email(user.getEmail())
-                        .phone(user.getPhone())
-                        .userAddresses(addresses)
-                        .build();
-                resultMap.put(dto.getId(), dto);
-            }
-            return resultMap;
+        CompletableFuture<Map<Long, UserMiniDto>> users = userMiniCache.getAll(ids);
+        if (!includeAddress) {
+            return FutureUtil.join(users);
         }
+        CompletableFuture<Map<Long, List<AddressDto>>> addresses = userAddressCache.getAll(ids);
 
-        // Default path: use cache + projection query (no addresses)
-        Cache cache = cacheManager.getCache("userMiniCache");
+        Map<Long, List<AddressDto>> addressMap = FutureUtil.join(addresses);
         Map<Long, UserMiniDto> resultMap = new HashMap<>();
-        List<Long> missingIds = new ArrayList<>();
-
-        for (Long id : userIds) {
-            UserMiniDto cachedUser = null;
-            if (cache != null) {
-                cachedUser = cache.get(id, UserMiniDto.class);
-            }
-
-            if (cachedUser != null) {
-                resultMap.put(id, cachedUser);
-            } else {
-                missingIds.add(id);
-            }
-        }
-
-        if (!missingIds.isEmpty()) {
-            List<UserMiniProjection> projections = userRepository.findUserMini(missingIds);
-
-            for (UserMiniProjection p : projections) {
-                UserMiniDto dto = UserMiniDto.builder()
-                        .id(p.getId())
-                        .userType(p.getUserType())
-                        .UserUuid(p.getUserUuid())
-                        .name(p.getFullName())
-                        .email(p.getEmail())
-                        .phone(p.getPhone())
-                        .build();
-
-                resultMap.put(dto.getId(), dto);
-
-                if (cache != null) {
-                    cache.put(dto.getId(), dto);
-                }
-            }
-        }
+        FutureUtil.join(users).forEach((id, user) -> resultMap.put(id, UserMiniDto.builder()
+                .id(user.getId())
+                .userType(user.getUserType())
+                .UserUuid(user.getUserUuid())
+                .name(user.getName())
+                .email(user.getEmail())
+                .phone(user.getPhone())
+                .userAddresses(addressMap.getOrDefault(id, List.of()))
+                .build()));
         return resultMap;
     }
 
@@ -354,7 +287,6 @@ public class UserService {
     }
 
     @Transactional
-    @CacheEvict(value = "userInitCache", key = "#userId")
     public CommonResponse toggleUserStatus(Long userId) throws CommonException {
         Long tenantId = UserContextUtil.getTenantId();
         User user = userRepository.findByIdAndTenant_Id(userId, tenantId)
@@ -374,6 +306,11 @@ public class UserService {
 
         user.setIsActive(!user.getIsActive());
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
+        if (!user.getIsActive()) {
+            // Tokens already issued would otherwise stay valid until they expire.
+            tokenRevocationRegistry.revokeUser(userId);
+        }
 
         return CommonResponse.builder()
                 .id(user.getId().toString())
@@ -383,7 +320,6 @@ public class UserService {
     }
 
     @Transactional
-    @CacheEvict(value = "userInitCache", key = "#userId")
     public CommonResponse addUserAddress(Long userId, AddressDto request) throws CommonException {
         Long tenantId = UserContextUtil.getTenantId();
         User user = userRepository.findByIdAndTenant_Id(userId, tenantId)
@@ -396,6 +332,7 @@ public class UserService {
         Address newAddress = mapToAddressEntity(request, userId);
         user.getAddresses().add(newAddress);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
 
         return CommonResponse.builder()
                 .id(user.getId().toString())
@@ -405,7 +342,6 @@ public class UserService {
     }
 
     @Transactional
-    @CacheEvict(value = "userInitCache", key = "#userId")
     public CommonResponse updateUserAddress(Long userId, Long addressId, AddressDto request) throws CommonException {
         Long tenantId = UserContextUtil.getTenantId();
         User user = userRepository.findByIdAndTenant_Id(userId, tenantId)
@@ -422,6 +358,7 @@ public class UserService {
 
         updateAddressEntity(addressToUpdate, request);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
 
         return CommonResponse.builder()
                 .id(user.getId().toString())
@@ -446,7 +383,6 @@ public class UserService {
     }
 
     @Transactional
-    @CacheEvict(value = "userInitCache", key = "#userId")
     public CommonResponse deleteUserAddress(Long userId, Long addressId) throws CommonException {
         Long tenantId = UserContextUtil.getTenantId();
         User user = userRepository.findByIdAndTenant_Id(userId, tenantId)
@@ -463,6 +399,7 @@ public class UserService {
 
         user.getAddresses().remove(addressToDelete);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
 
         return CommonResponse.builder()
                 .id(userId.toString())
@@ -669,17 +606,6 @@ public class UserService {
                 .build();
     }
 
-    private Map<String, Set<String>> groupModulePrivileges(UserApplication ua) {
-        return ua.getModulePrivileges().stream()
-                .filter(UserModulePrivilege::getIsActive)
-                .collect(Collectors.groupingBy(
-                        ump -> ump.getPrivilege().getModule().getModuleKey(), // ✅ via privilege
-                        Collectors.mapping(
-                                ump -> ump.getPrivilege().getPrivilegeKey(),
-                                Collectors.toSet()
-                        )
-                ));
-    }
     /**
      * Apply user type-specific defaults to the request.
      * If enforceDefaults is true, always applies defaults regardless of request data.
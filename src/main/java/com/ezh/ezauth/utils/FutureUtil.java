@@ -0,0 +1,26 @@
+package com.ezh.ezauth.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class FutureUtil {
+
+    private FutureUtil() {
+        // private constructor to prevent object creation
+    }
+
+    /**
+     * Waits for the future and rethrows a loader's own unchecked exception (for example a
+     * {@code CommonException}) rather than the CompletionException wrapping it.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
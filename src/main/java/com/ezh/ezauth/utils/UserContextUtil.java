@@ -66,4 +66,11 @@ public class UserContextUtil {
             throw new CommonException("Access denied", HttpStatus.FORBIDDEN);
         }
     }
+
+    /** Tenant users may only act on their own tenant; platform users on any. */
+    public static void requireTenantAccess(Long tenantId) throws CommonException {
+        if (!isPlatformUser() && !getTenantIdOrThrow().equals(tenantId)) {
+            throw new CommonException("Access denied", HttpStatus.FORBIDDEN);
+        }
+    }
 }
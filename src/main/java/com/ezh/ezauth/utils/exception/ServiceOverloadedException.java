@@ -0,0 +1,19 @@
+package com.ezh.ezauth.utils.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * A bounded resource is saturated. Answered with 503 and a Retry-After header so
+ * clients back off instead of piling on.
+ */
+@Getter
+public class ServiceOverloadedException extends CommonException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,12 @@
+-- Primary active subscription of a tenant: sign-in, the validity index and tenant DTOs.
+-- uk_one_active_sub_per_tenant already allows one ACTIVE row per tenant, so this cannot
+-- fail on existing data. end_date, id and plan_id are included so the end-date lookups
+-- are index-only scans. The queries inline the status literal so the predicate matches.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_sub_primary_active_tenant
+    ON auth.subscriptions (tenant_id) INCLUDE (end_date, id, plan_id)
+    WHERE is_primary AND status = 'ACTIVE';
+
+-- Expiry sweep: ACTIVE rows whose end_date has passed.
+CREATE INDEX IF NOT EXISTS idx_sub_active_end_date
+    ON auth.subscriptions (end_date, id)
+    WHERE status = 'ACTIVE';
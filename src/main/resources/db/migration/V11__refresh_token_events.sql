@@ -0,0 +1,24 @@
+-- Append-only log of refresh-token families. A family starts at sign-in (ISSUED), gets one
+-- ROTATED row per refresh and ends with REVOKED (sign-out or reuse). Token ids are stored
+-- as SHA-256 hashes only. Each row's expires_at is when the family's current token expires,
+-- so rows past it can be deleted without changing what the log folds to.
+CREATE TABLE IF NOT EXISTS auth.refresh_token_events
+(
+    id          BIGSERIAL PRIMARY KEY,
+    family_id   VARCHAR(32) NOT NULL,
+    user_id     BIGINT      NOT NULL,
+    event_type  VARCHAR(16) NOT NULL,
+    token_hash  VARCHAR(64),
+    parent_hash VARCHAR(64),
+    reason      VARCHAR(32),
+    expires_at  TIMESTAMPTZ NOT NULL,
+    created_at  TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- A token can be rotated once, cluster-wide; a second rotation of the same parent is reuse.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_rte_parent_hash
+    ON auth.refresh_token_events (parent_hash)
+    WHERE parent_hash IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_rte_family ON auth.refresh_token_events (family_id);
+CREATE INDEX IF NOT EXISTS idx_rte_expires_at ON auth.refresh_token_events (expires_at);
@@ -0,0 +1,14 @@
+-- Access and refresh tokens issued before revoked_before are rejected for their subject:
+-- a user (subject_type USER) or every user of a tenant (TENANT). Rows only matter until
+-- the longest-lived token issued before them has expired, and are pruned after that.
+CREATE TABLE IF NOT EXISTS auth.token_revocations
+(
+    id             BIGSERIAL PRIMARY KEY,
+    subject_type   VARCHAR(8)  NOT NULL,
+    subject_id     BIGINT      NOT NULL,
+    revoked_before TIMESTAMPTZ NOT NULL,
+    created_at     TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_token_revocations_revoked_before
+    ON auth.token_revocations (revoked_before);
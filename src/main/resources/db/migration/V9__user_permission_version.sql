@@ -0,0 +1,4 @@
+-- Incremented on every change to a user's roles, grants, profile or tenant.
+-- Part of the userInitCache key, so a bump makes older cached payloads unreachable.
+ALTER TABLE auth.users
+    ADD COLUMN IF NOT EXISTS permission_version BIGINT NOT NULL DEFAULT 0;
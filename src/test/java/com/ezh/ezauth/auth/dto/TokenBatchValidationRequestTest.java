@@ -0,0 +1,57 @@
+package com.ezh.ezauth.auth.dto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBatchValidationRequestTest {
+
+    private static ValidatorFactory factory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void createValidator() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        factory.close();
+    }
+
+    @Test
+    void acceptsUpToFiveHundredTokens() {
+        assertThat(validate(Collections.nCopies(1, "t"))).isEmpty();
+        assertThat(validate(Collections.nCopies(500, "t"))).isEmpty();
+    }
+
+    @Test
+    void rejectsMoreThanFiveHundredTokens() {
+        assertThat(validate(Collections.nCopies(501, "t")))
+                .extracting(ConstraintViolation::getMessage)
+                .containsExactly("A maximum of 500 tokens can be validated per request");
+    }
+
+    @Test
+    void rejectsAnEmptyOrMissingBatch() {
+        assertThat(validate(List.of()))
+                .extracting(ConstraintViolation::getMessage)
+                .containsExactly("At least one token is required");
+        assertThat(validate(null)).hasSize(1);
+    }
+
+    private static Set<ConstraintViolation<TokenBatchValidationRequest>> validate(List<String> tokens) {
+        return validator.validate(new TokenBatchValidationRequest(tokens));
+    }
+}
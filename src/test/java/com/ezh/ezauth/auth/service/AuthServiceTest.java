@@ -0,0 +1,134 @@
+package com.ezh.ezauth.auth.service;
+
+import com.ezh.ezauth.auth.dto.AuthResponse;
+import com.ezh.ezauth.auth.dto.TokenIntrospectionResponse;
+import com.ezh.ezauth.auth.dto.TokenRefreshRequest;
+import com.ezh.ezauth.security.JwtTokenProvider;
+import com.ezh.ezauth.security.VerifiedToken;
+import com.ezh.ezauth.subscription.service.SubscriptionService;
+import com.ezh.ezauth.tenant.entity.Tenant;
+import com.ezh.ezauth.user.entity.User;
+import com.ezh.ezauth.user.entity.UserType;
+import com.ezh.ezauth.user.repository.UserRepository;
+import com.ezh.ezauth.utils.exception.CommonException;
+import io.jsonwebtoken.MalformedJwtException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    private static final Long USER_ID = 7L;
+    private static final Long TENANT_ID = 3L;
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
+    @Mock
+    private TokenRevocationRegistry tokenRevocationRegistry;
+    @Mock
+    private SubscriptionService subscriptionService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AuthService authService;
+
+    private final Date issuedAt = new Date();
+
+    private void givenRefreshToken() {
+        VerifiedToken refresh = VerifiedToken.builder()
+                .userId(USER_ID)
+                .type(VerifiedToken.TYPE_REFRESH)
+                .tokenId("jti")
+                .familyId("family")
+                .issuedAt(issuedAt)
+                .build();
+        when(jwtTokenProvider.parseToken("refresh")).thenReturn(refresh);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(User.builder()
+                .id(USER_ID)
+                .userUuid("user-uuid")
+                .email("jane@acme.test")
+                .userType(UserType.EMPLOYEE)
+                .tenant(Tenant.builder().id(TENANT_ID).tenantUuid("tenant-uuid").build())
+                .build()));
+    }
+
+    @Test
+    void refreshWithRevokedTokenIsRefusedBeforeRotation() {
+        givenRefreshToken();
+        when(tokenRevocationRegistry.isRevoked(USER_ID, TENANT_ID, issuedAt)).thenReturn(true);
+
+        assertThatThrownBy(() -> authService.refreshToken(request()))
+                .isInstanceOfSatisfying(CommonException.class,
+                        e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.UNAUTHORIZED));
+        verify(refreshTokenStore, never()).rotate(any(), any());
+    }
+
+    @Test
+    void refreshWithLiveTokenRotatesTheFamily() {
+        givenRefreshToken();
+        when(subscriptionService.hasValidSubscription(TENANT_ID)).thenReturn(true);
+        when(refreshTokenStore.rotate(eq("refresh"), any()))
+                .thenReturn(new RefreshTokenStore.IssuedRefreshToken("next", "family"));
+        when(jwtTokenProvider.generateAccessToken(eq(USER_ID), anyString(), anyString(), eq(TENANT_ID), anyString(),
+                anyString(), anyString(), anyString(), eq("family"))).thenReturn("new-access");
+        when(jwtTokenProvider.generateRefreshToken(USER_ID, "next", "family")).thenReturn("new-refresh");
+
+        AuthResponse response = authService.refreshToken(request());
+
+        assertThat(response.getAccessToken()).isEqualTo("new-access");
+        assertThat(response.getRefreshToken()).isEqualTo("new-refresh");
+    }
+
+    @Test
+    void batchIntrospectionVerifiesEachDistinctTokenOnce() {
+        VerifiedToken access = VerifiedToken.builder()
+                .userId(USER_ID)
+                .tenantId(TENANT_ID)
+                .type(VerifiedToken.TYPE_ACCESS)
+                .issuedAt(issuedAt)
+                .build();
+        when(jwtTokenProvider.parseToken("access")).thenReturn(access);
+        when(jwtTokenProvider.parseToken("garbage")).thenThrow(new MalformedJwtException("bad"));
+
+        List<TokenIntrospectionResponse> responses =
+                authService.validateTokens(Arrays.asList("access", "garbage", "access", "", null));
+
+        assertThat(responses).extracting(TokenIntrospectionResponse::isValid)
+                .containsExactly(true, false, true, false, false);
+        assertThat(responses.get(0).getUserId()).isEqualTo(USER_ID);
+        assertThat(responses.get(1).getError()).isEqualTo("Invalid token");
+        assertThat(responses.get(3).getError()).isEqualTo("Token is missing");
+        verify(jwtTokenProvider, times(1)).parseToken("access");
+    }
+
+    private static TokenRefreshRequest request() {
+        TokenRefreshRequest request = new TokenRefreshRequest();
+        request.setRefreshToken("refresh");
+        return request;
+    }
+}
@@ -0,0 +1,293 @@
+package com.ezh.ezauth.auth.service;
+
+import com.ezh.ezauth.auth.entity.RefreshTokenEvent;
+import com.ezh.ezauth.auth.entity.RefreshTokenEventType;
+import com.ezh.ezauth.auth.repository.RefreshTokenEventRepository;
+import com.ezh.ezauth.cluster.LocalClusterBus;
+import com.ezh.ezauth.security.VerifiedToken;
+import com.ezh.ezauth.utils.exception.CommonException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the store against an in-memory stand-in for refresh_token_events that enforces the
+ * same rules as the SQL: a parent hash is consumed once, and nothing is appended to a
+ * revoked family.
+ */
+class RefreshTokenStoreTest {
+
+    private static final long USER_ID = 7L;
+
+    private final List<RefreshTokenEvent> log = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RefreshTokenEventRepository repository;
+    private LocalClusterBus clusterBus;
+    private RefreshTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RefreshTokenEventRepository.class);
+        when(repository.save(any(RefreshTokenEvent.class))).thenAnswer(call -> append(call.getArgument(0)));
+        when(repository.appendUnlessUsed(anyString(), any(), anyString(), anyString(), anyString(), any()))
+                .thenAnswer(call -> appendUnlessUsed(call.getArgument(0), call.getArgument(1), call.getArgument(2),
+                        call.getArgument(3), call.getArgument(4), call.getArgument(5)));
+        when(repository.findByFamilyIdOrderByIdAsc(anyString())).thenAnswer(call -> log.stream()
+                .filter(event -> event.getFamilyId().equals(call.getArgument(0)))
+                .toList());
+        when(repository.findFirstByParentHash(anyString())).thenAnswer(call -> log.stream()
+                .filter(event -> call.getArgument(0).equals(event.getParentHash()))
+                .findFirst());
+        when(repository.findLatestPerFamily(any())).thenAnswer(call -> latestPerFamily(call.getArgument(0)));
+
+        clusterBus = new LocalClusterBus();
+        store = newStore(clusterBus);
+    }
+
+    @Test
+    void rotateReplacesTheCurrentToken() {
+        RefreshTokenStore.IssuedRefreshToken issued = store.issue(USER_ID);
+
+        RefreshTokenStore.IssuedRefreshToken rotated = store.rotate("jwt", token(issued));
+        RefreshTokenStore.IssuedRefreshToken again = store.rotate("jwt", token(rotated));
+
+        assertThat(rotated.familyId()).isEqualTo(issued.familyId());
+        assertThat(rotated.tokenId()).isNotEqualTo(issued.tokenId());
+        assertThat(again.familyId()).isEqualTo(issued.familyId());
+        assertThat(eventTypes()).containsExactly(RefreshTokenEventType.ISSUED,
+                RefreshTokenEventType.ROTATED, RefreshTokenEventType.ROTATED);
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheFamily() {
+        RefreshTokenStore.IssuedRefreshToken issued = store.issue(USER_ID);
+        RefreshTokenStore.IssuedRefreshToken rotated = store.rotate("jwt", token(issued));
+
+        assertThatThrownBy(() -> store.rotate("jwt", token(issued)))
+                .isInstanceOf(CommonException.class)
+                .hasMessageContaining("already used");
+        assertThat(log.get(log.size() - 1).getEventType()).isEqualTo(RefreshTokenEventType.REVOKED);
+        assertThat(log.get(log.size() - 1).getReason()).isEqualTo(RefreshTokenStore.REASON_REUSE);
+
+        // The legitimate holder's token dies with the family.
+        assertThatThrownBy(() -> store.rotate("jwt", token(rotated)))
+                .isInstanceOf(CommonException.class)
+                .hasMessageContaining("Invalid or expired");
+    }
+
+    @Test
+    void reuseIsDetectedWhenAnotherNodeRotatedFirst() {
+        // Separate buses: node B never hears about node A's rotation and must re-read the log.
+        RefreshTokenStore nodeB = newStore(new LocalClusterBus());
+        RefreshTokenStore.IssuedRefreshToken issued = store.issue(USER_ID);
+        nodeB.loadAll();
+
+        store.rotate("jwt", token(issued));
+
+        assertThatThrownBy(() -> nodeB.rotate("jwt", token(issued)))
+                .isInstanceOf(CommonException.class)
+                .hasMessageContaining("already used");
+    }
+
+    @Test
+    void revokedFamilyIsRefused() {
+        RefreshTokenStore.IssuedRefreshToken issued = store.issue(USER_ID);
+        store.revoke(issued.familyId(), USER_ID, RefreshTokenStore.REASON_SIGNOUT);
+
+        assertThatThrownBy(() -> store.rotate("jwt", token(issued)))
+                .isInstanceOf(CommonException.class)
+                .hasMessageContaining("Invalid or expired");
+        assertThat(eventTypes()).containsExactly(RefreshTokenEventType.ISSUED, RefreshTokenEventType.REVOKED);
+    }
+
+    @Test
+    void familyRevokedByAnotherNodeIsInvalidNotReuse() {
+        RefreshTokenStore nodeB = newStore(new LocalClusterBus());
+        RefreshTokenStore.IssuedRefreshToken issued = store.issue(USER_ID);
+        nodeB.loadAll();
+
+        // Node B never hears of the sign-out; its insert is refused by the REVOKED row.
+        store.revoke(issued.familyId(), USER_ID, RefreshTokenStore.REASON_SIGNOUT);
+
+        assertThatThrownBy(() -> nodeB.rotate("jwt", token(issued)))
+                .isInstanceOf(CommonException.class)
+                .hasMessageContaining("Invalid or expired");
+        assertThat(eventTypes()).containsExactly(RefreshTokenEventType.ISSUED, RefreshTokenEventType.REVOKED);
+        assertThat(refreshes("revoked")).isEqualTo(1);
+        assertThat(refreshes("reused")).isZero();
+    }
+
+    @Test
+    void revocationOutlivesRotationsMemoryHasNotSeen() throws Exception {
+        RefreshTokenStore nodeB = newStore(new LocalClusterBus());
+        RefreshTokenStore.IssuedRefreshToken issued = store.issue(USER_ID);
+        nodeB.loadAll();
+        Thread.sleep(5);
+        store.rotate("jwt", token(issued));
+
+        nodeB.revoke(issued.familyId(), USER_ID, RefreshTokenStore.REASON_SIGNOUT);
+
+        RefreshTokenEvent rotated = log.get(1);
+        RefreshTokenEvent revoked = log.get(2);
+        assertThat(revoked.getEventType()).isEqualTo(RefreshTokenEventType.REVOKED);
+        assertThat(revoked.getExpiresAt()).isAfterOrEqualTo(rotated.getExpiresAt());
+    }
+
+    @Test
+    void startupLoadKeepsARevocationThatARacingRotationFollowed() {
+        RefreshTokenStore.IssuedRefreshToken issued = store.issue(USER_ID);
+        store.revoke(issued.familyId(), USER_ID, RefreshTokenStore.REASON_SIGNOUT);
+        // A rotation that passed its NOT EXISTS check before the REVOKED row committed.
+        append(RefreshTokenEvent.builder()
+                .familyId(issued.familyId())
+                .userId(USER_ID)
+                .eventType(RefreshTokenEventType.ROTATED)
+                .tokenHash(RefreshTokenStore.hash("raced"))
+                .parentHash(RefreshTokenStore.hash(issued.tokenId()))
+                .expiresAt(LocalDateTime.now().plusMinutes(1))
+                .build());
+
+        RefreshTokenStore restarted = newStore(new LocalClusterBus());
+        restarted.loadAll();
+
+        assertThatThrownBy(() -> restarted.rotate("jwt", token(new RefreshTokenStore.IssuedRefreshToken("raced",
+                issued.familyId()))))
+                .isInstanceOf(CommonException.class)
+                .hasMessageContaining("Invalid or expired");
+    }
+
+    @Test
+    void olderStateArrivingLateDoesNotRollTheFamilyBack() {
+        List<String> messages = new ArrayList<>();
+        clusterBus.subscribe(RefreshTokenStore.TOPIC, messages::add);
+        RefreshTokenStore.IssuedRefreshToken issued = store.issue(USER_ID);
+        RefreshTokenStore.IssuedRefreshToken rotated = store.rotate("jwt", token(issued));
+
+        // Replay the ISSUED state, as a delayed message from another node would.
+        clusterBus.publish(RefreshTokenStore.TOPIC, messages.get(0));
+
+        assertThat(store.rotate("jwt", token(rotated)).familyId()).isEqualTo(issued.familyId());
+    }
+
+    @Test
+    void legacyTokenIsAdoptedOnlyOnce() {
+        VerifiedToken legacy = VerifiedToken.builder().userId(USER_ID).type(VerifiedToken.TYPE_REFRESH).build();
+
+        RefreshTokenStore.IssuedRefreshToken adopted = store.rotate("legacy.jwt", legacy);
+
+        assertThat(log.get(0).getEventType()).isEqualTo(RefreshTokenEventType.ISSUED);
+        assertThat(log.get(0).getParentHash()).isEqualTo(RefreshTokenStore.hash("legacy.jwt"));
+
+        assertThatThrownBy(() -> store.rotate("legacy.jwt", legacy))
+                .isInstanceOf(CommonException.class)
+                .hasMessageContaining("already used");
+        assertThatThrownBy(() -> store.rotate("jwt", token(adopted)))
+                .isInstanceOf(CommonException.class)
+                .hasMessageContaining("Invalid or expired");
+    }
+
+    @Test
+    void legacyTokenOfASignedOutFamilyIsInvalidNotReuse() {
+        VerifiedToken legacy = VerifiedToken.builder().userId(USER_ID).type(VerifiedToken.TYPE_REFRESH).build();
+        RefreshTokenStore.IssuedRefreshToken adopted = store.rotate("legacy.jwt", legacy);
+        store.revoke(adopted.familyId(), USER_ID, RefreshTokenStore.REASON_SIGNOUT);
+
+        assertThatThrownBy(() -> store.rotate("legacy.jwt", legacy))
+                .isInstanceOf(CommonException.class)
+                .hasMessageContaining("Invalid or expired");
+        assertThat(eventTypes()).containsExactly(RefreshTokenEventType.ISSUED, RefreshTokenEventType.REVOKED);
+        assertThat(refreshes("reused")).isZero();
+    }
+
+    @Test
+    void legacyTokensAreRefusedWhenDisabled() {
+        ReflectionTestUtils.setField(store, "acceptLegacy", false);
+        VerifiedToken legacy = VerifiedToken.builder().userId(USER_ID).type(VerifiedToken.TYPE_REFRESH).build();
+
+        assertThatThrownBy(() -> store.rotate("legacy.jwt", legacy)).isInstanceOf(CommonException.class);
+        assertThat(log).isEmpty();
+    }
+
+    private RefreshTokenStore newStore(LocalClusterBus bus) {
+        RefreshTokenStore[] holder = new RefreshTokenStore[1];
+        RefreshTokenStore created = new RefreshTokenStore(repository, bus,
+                event -> holder[0].onCommitted((RefreshTokenStore.FamilyChange) event),
+                mock(PlatformTransactionManager.class), meterRegistry);
+        holder[0] = created;
+        ReflectionTestUtils.setField(created, "refreshTokenExpiration", 60_000L);
+        ReflectionTestUtils.setField(created, "acceptLegacy", true);
+        created.init();
+        return created;
+    }
+
+    private static VerifiedToken token(RefreshTokenStore.IssuedRefreshToken issued) {
+        return VerifiedToken.builder()
+                .userId(USER_ID)
+                .type(VerifiedToken.TYPE_REFRESH)
+                .tokenId(issued.tokenId())
+                .familyId(issued.familyId())
+                .build();
+    }
+
+    private RefreshTokenEvent append(RefreshTokenEvent event) {
+        event.setId((long) log.size() + 1);
+        log.add(event);
+        return event;
+    }
+
+    private List<Long> appendUnlessUsed(String familyId, Long userId, String eventType, String tokenHash,
+                                        String parentHash, LocalDateTime expiresAt) {
+        boolean used = log.stream().anyMatch(event -> Objects.equals(parentHash, event.getParentHash()));
+        boolean revoked = log.stream().anyMatch(event -> event.getFamilyId().equals(familyId)
+                && event.getEventType() == RefreshTokenEventType.REVOKED);
+        if (used || revoked) {
+            return List.of();
+        }
+        return List.of(append(RefreshTokenEvent.builder()
+                .familyId(familyId)
+                .userId(userId)
+                .eventType(RefreshTokenEventType.valueOf(eventType))
+                .tokenHash(tokenHash)
+                .parentHash(parentHash)
+                .expiresAt(expiresAt)
+                .build()).getId());
+    }
+
+    /** Same choice as the DISTINCT ON query: the REVOKED row if any, else the newest. */
+    private List<RefreshTokenEvent> latestPerFamily(LocalDateTime now) {
+        Comparator<RefreshTokenEvent> preferred = Comparator
+                .comparing((RefreshTokenEvent event) -> event.getEventType() == RefreshTokenEventType.REVOKED)
+                .thenComparing(RefreshTokenEvent::getId);
+        return log.stream()
+                .filter(event -> event.getExpiresAt().isAfter(now))
+                .collect(Collectors.groupingBy(RefreshTokenEvent::getFamilyId,
+                        Collectors.maxBy(preferred)))
+                .values().stream()
+                .map(event -> event.orElseThrow())
+                .toList();
+    }
+
+    private double refreshes(String outcome) {
+        return meterRegistry.counter("ezauth.refresh-token.refresh", "outcome", outcome).count();
+    }
+
+    private List<RefreshTokenEventType> eventTypes() {
+        return log.stream().map(RefreshTokenEvent::getEventType).toList();
+    }
+}
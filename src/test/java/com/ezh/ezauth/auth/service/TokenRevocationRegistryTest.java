@@ -0,0 +1,117 @@
+package com.ezh.ezauth.auth.service;
+
+import com.ezh.ezauth.auth.entity.TokenRevocation;
+import com.ezh.ezauth.auth.repository.TokenRevocationRepository;
+import com.ezh.ezauth.cluster.LocalClusterBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationRegistryTest {
+
+    private static final long LIFETIME_MS = 3_600_000;
+    private static final Long USER_ID = 7L;
+    private static final Long TENANT_ID = 3L;
+
+    private TokenRevocationRepository repository;
+    private LocalClusterBus clusterBus;
+    private TokenRevocationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TokenRevocationRepository.class);
+        when(repository.save(any(TokenRevocation.class))).thenAnswer(call -> call.getArgument(0));
+        when(repository.findByRevokedBeforeAfter(any())).thenReturn(List.of());
+        clusterBus = new LocalClusterBus();
+
+        TokenRevocationRegistry[] holder = new TokenRevocationRegistry[1];
+        registry = new TokenRevocationRegistry(repository, clusterBus,
+                event -> holder[0].onCommitted((TokenRevocationRegistry.Revocation) event),
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        holder[0] = registry;
+        ReflectionTestUtils.setField(registry, "accessTokenExpiration", LIFETIME_MS);
+        ReflectionTestUtils.setField(registry, "refreshTokenExpiration", LIFETIME_MS);
+        ReflectionTestUtils.setField(registry, "bloomBits", 1024);
+        registry.init();
+    }
+
+    @Test
+    void tokenIssuedInTheSameSecondAsTheRevocationIsRevoked() {
+        // iat has whole seconds, so this token may well predate the revocation.
+        Date issuedAt = secondsAgo(0);
+
+        registry.revokeUser(USER_ID);
+
+        assertThat(registry.isRevoked(USER_ID, TENANT_ID, issuedAt)).isTrue();
+        assertThat(registry.isRevoked(USER_ID, TENANT_ID, secondsAgo(60))).isTrue();
+    }
+
+    @Test
+    void signInAfterReactivationIsAccepted() {
+        registry.revokeUser(USER_ID);
+
+        // Reactivating changes nothing here; tokens from the next second on are simply newer.
+        Date nextSecond = new Date((Math.floorDiv(System.currentTimeMillis(), 1000) + 1) * 1000);
+
+        assertThat(registry.isRevoked(USER_ID, TENANT_ID, nextSecond)).isFalse();
+        assertThat(registry.isRevoked(USER_ID, TENANT_ID, secondsAgo(1))).isTrue();
+    }
+
+    @Test
+    void tenantCutoffRevokesEveryUserOfTheTenant() {
+        registry.revokeTenant(TENANT_ID);
+
+        assertThat(registry.isRevoked(USER_ID, TENANT_ID, secondsAgo(1))).isTrue();
+        assertThat(registry.isRevoked(99L, TENANT_ID, secondsAgo(1))).isTrue();
+        assertThat(registry.isRevoked(USER_ID, 4L, secondsAgo(1))).isFalse();
+        // A user id equal to the tenant id must not be caught by the tenant's entry.
+        assertThat(registry.isRevoked(TENANT_ID, 4L, secondsAgo(1))).isFalse();
+    }
+
+    @Test
+    void tokenWithoutIssuedAtIsNotRevoked() {
+        registry.revokeUser(USER_ID);
+
+        assertThat(registry.isRevoked(USER_ID, TENANT_ID, null)).isFalse();
+    }
+
+    @Test
+    void pruneDropsExpiredCutoffsAndRebuildsTheFilter() {
+        long expiredCutoff = (System.currentTimeMillis() - LIFETIME_MS) / 1000 - 60;
+        clusterBus.publish(TokenRevocationRegistry.TOPIC, "USER|1|" + expiredCutoff);
+        registry.revokeUser(2L);
+        Date beforeBoth = new Date((expiredCutoff - 10) * 1000);
+
+        assertThat(registry.isRevoked(1L, TENANT_ID, beforeBoth)).isTrue();
+
+        registry.prune();
+
+        assertThat(registry.isRevoked(1L, TENANT_ID, beforeBoth)).isFalse();
+        assertThat(registry.isRevoked(2L, TENANT_ID, secondsAgo(1))).isTrue();
+        verify(repository).deleteRevokedBefore(any());
+    }
+
+    @Test
+    void revocationFromAnotherNodeIsApplied() {
+        long cutoff = System.currentTimeMillis() / 1000;
+        clusterBus.publish(TokenRevocationRegistry.TOPIC, "TENANT|" + TENANT_ID + "|" + cutoff);
+
+        assertThat(registry.isRevoked(USER_ID, TENANT_ID, secondsAgo(5))).isTrue();
+        assertThat(registry.isRevoked(USER_ID, TENANT_ID, new Date(cutoff * 1000))).isFalse();
+    }
+
+    private static Date secondsAgo(long seconds) {
+        return new Date((System.currentTimeMillis() / 1000 - seconds) * 1000);
+    }
+}
@@ -0,0 +1,136 @@
+package com.ezh.ezauth.cache;
+
+import com.ezh.ezauth.cluster.ClusteredCacheManager;
+import com.ezh.ezauth.common.dto.AddressDto;
+import com.ezh.ezauth.tenant.dto.TenantDto;
+import com.ezh.ezauth.user.dto.UserInitResponse;
+import com.ezh.ezauth.user.dto.UserMiniDto;
+import com.ezh.ezauth.user.repository.UserRepository;
+import com.ezh.ezauth.user.repository.projection.UserVersionProjection;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CacheSnapshotServiceTest {
+
+    private static final Long USER_ID = 7L;
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        file = dir.resolve("cache.snapshot");
+        userRepository = mock(UserRepository.class);
+    }
+
+    @Test
+    void entriesWrittenOnShutdownAreRestoredWhileTheirVersionHolds() {
+        versionInDatabase(4L);
+        Caches before = new Caches();
+        before.userMini.synchronous().put(USER_ID, mini());
+        service(before).write();
+
+        Caches after = new Caches();
+        CacheSnapshotService restoring = service(after);
+        restoring.restore();
+
+        assertThat(after.userMini.synchronous().getIfPresent(USER_ID)).isEqualTo(mini());
+        assertThat(restoring.isRestored()).isTrue();
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void entriesWhoseVersionMovedOnAreDropped() {
+        versionInDatabase(4L);
+        Caches before = new Caches();
+        before.userMini.synchronous().put(USER_ID, mini());
+        service(before).write();
+
+        versionInDatabase(5L);
+        Caches after = new Caches();
+        service(after).restore();
+
+        assertThat(after.userMini.synchronous().getIfPresent(USER_ID)).isNull();
+    }
+
+    @Test
+    void snapshotHoldingAClassOutsideTheAllowListIsDiscarded() throws Exception {
+        try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(0x455A4353);
+            out.writeInt(1);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(1);
+            out.writeUTF("userMiniCache");
+            out.writeInt(1);
+            out.writeObject(USER_ID);
+            out.writeLong(4L);
+            out.writeObject(new AtomicLong(1));
+        }
+
+        Caches after = new Caches();
+        CacheSnapshotService restoring = service(after);
+        restoring.restore();
+
+        assertThat(after.userMini.synchronous().asMap()).isEmpty();
+        assertThat(restoring.isRestored()).isFalse();
+        assertThat(file).doesNotExist();
+    }
+
+    private CacheSnapshotService service(Caches caches) {
+        CacheSnapshotService service = new CacheSnapshotService(caches.userInit, caches.userMini, caches.userAddress,
+                caches.tenantDto, mock(ClusteredCacheManager.class), userRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "path", file.toString());
+        ReflectionTestUtils.setField(service, "maxEntries", 100);
+        ReflectionTestUtils.setField(service, "maxAge", Duration.ofMinutes(5));
+        return service;
+    }
+
+    private void versionInDatabase(long version) {
+        UserVersionProjection row = mock(UserVersionProjection.class);
+        when(row.getId()).thenReturn(USER_ID);
+        when(row.getPermissionVersion()).thenReturn(version);
+        when(userRepository.findPermissionVersionsByIdIn(any())).thenReturn(List.of(row));
+    }
+
+    private static UserMiniDto mini() {
+        return UserMiniDto.builder()
+                .id(USER_ID)
+                .userType("EMPLOYEE")
+                .name("Jane")
+                .email("jane@acme.test")
+                .userAddresses(List.of())
+                .build();
+    }
+
+    private static final class Caches {
+        final AsyncLoadingCache<String, UserInitResponse> userInit = cache();
+        final AsyncLoadingCache<Long, UserMiniDto> userMini = cache();
+        final AsyncLoadingCache<Long, List<AddressDto>> userAddress = cache();
+        final AsyncLoadingCache<Long, TenantDto> tenantDto = cache();
+
+        private static <K, V> AsyncLoadingCache<K, V> cache() {
+            return Caffeine.newBuilder().maximumSize(100).buildAsync(key -> null);
+        }
+    }
+}
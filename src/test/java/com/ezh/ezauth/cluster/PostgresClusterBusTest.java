@@ -0,0 +1,122 @@
+package com.ezh.ezauth.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the listen loop against mocked JDBC connections: the first one drops while
+ * polling, the second delivers notifications.
+ */
+class PostgresClusterBusTest {
+
+    private static final String TOPIC = "test-topic";
+
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+    private final List<Connection> opened = new CopyOnWriteArrayList<>();
+    private PostgresClusterBus bus;
+
+    @AfterEach
+    void stopBus() {
+        if (bus != null) {
+            bus.stop();
+        }
+    }
+
+    @Test
+    void droppedConnectionIsReopenedAndTriggersOneResync() throws Exception {
+        Connection dropped = connection(pg -> when(pg.getNotifications(anyInt()))
+                .thenThrow(new SQLException("An I/O error occurred while sending to the backend.")));
+        Connection healthy = connection(pg -> when(pg.getNotifications(anyInt())).thenAnswer(call -> idle()));
+        start(dropped, healthy);
+
+        assertThat(received.poll(10, TimeUnit.SECONDS)).isEqualTo(ClusterBus.RESYNC_TOPIC);
+        assertThat(opened).containsExactly(dropped, healthy);
+        verify(dropped).close();
+        // Only the reconnect resyncs; the initial connect does not.
+        assertThat(received.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void notificationsFromOtherNodesAreDispatchedAndOwnOnesSkipped() throws Exception {
+        String[] ownMessage = new String[1];
+        Connection connection = connection(pg -> when(pg.getNotifications(anyInt()))
+                .thenAnswer(call -> new PGNotification[]{
+                        notification(ownMessage[0]),
+                        notification("other-node|" + TOPIC + "|payload|with|bars")})
+                .thenAnswer(call -> idle()));
+        bus = newBus(connection);
+        ownMessage[0] = ReflectionTestUtils.getField(bus, "nodeId") + "|" + TOPIC + "|own";
+        bus.start();
+
+        assertThat(received.poll(10, TimeUnit.SECONDS)).isEqualTo(TOPIC + ":payload|with|bars");
+        assertThat(received.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private void start(Connection... connections) {
+        bus = newBus(connections);
+        bus.start();
+    }
+
+    private PostgresClusterBus newBus(Connection... connections) {
+        PostgresClusterBus created = new PostgresClusterBus(mock(DataSource.class)) {
+            @Override
+            Connection openListenConnection() throws SQLException {
+                if (opened.size() >= connections.length) {
+                    throw new SQLException("no more connections");
+                }
+                Connection next = connections[opened.size()];
+                opened.add(next);
+                return next;
+            }
+        };
+        ReflectionTestUtils.setField(created, "channel", "ezauth_cluster");
+        created.subscribe(ClusterBus.RESYNC_TOPIC, payload -> received.add(ClusterBus.RESYNC_TOPIC));
+        created.subscribe(TOPIC, payload -> received.add(TOPIC + ":" + payload));
+        return created;
+    }
+
+    private static Connection connection(PgStubbing stubbing) throws SQLException {
+        Connection connection = mock(Connection.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        stubbing.stub(pgConnection);
+        return connection;
+    }
+
+    private static PGNotification notification(String parameter) {
+        PGNotification notification = mock(PGNotification.class);
+        when(notification.getParameter()).thenReturn(parameter);
+        return notification;
+    }
+
+    /** A quiet channel: the real driver waits up to the poll timeout and returns nothing. */
+    private static PGNotification[] idle() throws InterruptedException {
+        Thread.sleep(20);
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface PgStubbing {
+        void stub(PGConnection pgConnection) throws SQLException;
+    }
+}
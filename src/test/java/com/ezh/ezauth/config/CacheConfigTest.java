@@ -0,0 +1,82 @@
+package com.ezh.ezauth.config;
+
+import com.ezh.ezauth.user.dto.UserInitResponse;
+import com.ezh.ezauth.user.repository.UserApplicationRepository;
+import com.ezh.ezauth.user.repository.UserRepository;
+import com.ezh.ezauth.user.service.UserInitLoader;
+import com.ezh.ezauth.utils.FutureUtil;
+import com.ezh.ezauth.utils.exception.CommonException;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheConfigTest {
+
+    private final CacheConfig config = new CacheConfig();
+    private ExecutorService executor;
+    private UserRepository userRepository;
+    private AsyncLoadingCache<String, UserInitResponse> userInitCache;
+
+    @BeforeEach
+    void setUp() {
+        executor = config.cacheLoaderExecutor();
+        userRepository = mock(UserRepository.class);
+        UserInitLoader loader = new UserInitLoader(userRepository, mock(UserApplicationRepository.class));
+        userInitCache = config.userInitCache(loader, new SimpleMeterRegistry(), executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesForOneKeyShareASingleLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findUserInit(eq(7L), any())).thenAnswer(call -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        String key = UserInitLoader.key(7L, 3);
+        CompletableFuture<UserInitResponse> first = userInitCache.get(key);
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<UserInitResponse> second = userInitCache.get(key);
+        release.countDown();
+
+        assertThat(second).isSameAs(first);
+        assertThatThrownBy(first::join).hasCauseInstanceOf(CommonException.class);
+        verify(userRepository, times(1)).findUserInit(eq(7L), any());
+    }
+
+    @Test
+    void loaderFailureSurfacesAsItsOwnException() {
+        when(userRepository.findUserInit(eq(7L), any())).thenReturn(List.of());
+
+        assertThatThrownBy(() -> FutureUtil.join(userInitCache.get(UserInitLoader.key(7L, 3))))
+                .isInstanceOf(CommonException.class)
+                .hasFieldOrPropertyWithValue("httpStatus", HttpStatus.NOT_FOUND);
+        // Failed loads are not cached; the next request queries again.
+        assertThat(userInitCache.synchronous().getIfPresent(UserInitLoader.key(7L, 3))).isNull();
+    }
+}
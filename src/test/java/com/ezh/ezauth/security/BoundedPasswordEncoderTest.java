@@ -0,0 +1,106 @@
+package com.ezh.ezauth.security;
+
+import com.ezh.ezauth.utils.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch hashing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    /** Hashes only once released, so the test decides how long the single thread stays busy. */
+    private final PasswordEncoder slow = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            hashing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals(encode(rawPassword));
+        }
+    };
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void fullQueueIsRefusedWith503() throws Exception {
+        encoder = new BoundedPasswordEncoder(slow, 1, 1, Duration.ofSeconds(10), 7, meterRegistry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        awaitQueued(1);
+
+        assertThatThrownBy(() -> encoder.encode("third"))
+                .isInstanceOfSatisfying(ServiceOverloadedException.class, e -> {
+                    assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(e.getRetryAfterSeconds()).isEqualTo(7);
+                });
+        assertThat(rejected()).isEqualTo(1);
+
+        // The refused call did not disturb the ones already admitted.
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:second");
+    }
+
+    @Test
+    void waitingPastMaxWaitIsRefusedWith503() throws Exception {
+        encoder = new BoundedPasswordEncoder(slow, 1, 4, Duration.ofMillis(100), 7, meterRegistry);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> encoder.encode("stuck"))
+                .isInstanceOfSatisfying(ServiceOverloadedException.class,
+                        e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void ssoOnlyAccountsAreAnsweredWithoutAHashingSlot() throws Exception {
+        encoder = new BoundedPasswordEncoder(slow, 1, 1, Duration.ofSeconds(10), 7, meterRegistry);
+        CompletableFuture.runAsync(() -> encoder.encode("first"));
+        assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(encoder.matches("anything", PasswordHashing.SSO_ONLY)).isFalse();
+        assertThat(encoder.matches("anything", null)).isFalse();
+        assertThat(rejected()).isZero();
+    }
+
+    private void awaitQueued(int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("ezauth.password.hash.queue").gauge().value() < size) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private double rejected() {
+        return meterRegistry.get("ezauth.password.hash.rejected").counter().count();
+    }
+}
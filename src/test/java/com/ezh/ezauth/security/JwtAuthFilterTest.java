@@ -0,0 +1,109 @@
+package com.ezh.ezauth.security;
+
+import com.ezh.ezauth.auth.service.TokenRevocationRegistry;
+import com.ezh.ezauth.utils.UserContextUtil;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthFilterTest {
+
+    private final JwtTokenProvider jwtTokenProvider = mock(JwtTokenProvider.class);
+    private final TokenRevocationRegistry tokenRevocationRegistry = mock(TokenRevocationRegistry.class);
+    private final JwtAuthFilter filter = new JwtAuthFilter(jwtTokenProvider, tokenRevocationRegistry);
+
+    private final VerifiedToken accessToken = VerifiedToken.builder()
+            .userId(7L)
+            .tenantId(3L)
+            .email("jane@acme.test")
+            .roles("ADMIN,VIEWER")
+            .accountScope("TENANT")
+            .type(VerifiedToken.TYPE_ACCESS)
+            .issuedAt(new Date())
+            .build();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenAuthenticatesTheRequest() throws Exception {
+        when(jwtTokenProvider.parseToken("access")).thenReturn(accessToken);
+
+        MockFilterChain chain = filter(bearer("access"));
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isInstanceOf(JwtAuthentication.class);
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void revokedTokenLeavesTheRequestUnauthenticated() throws Exception {
+        when(jwtTokenProvider.parseToken("access")).thenReturn(accessToken);
+        when(tokenRevocationRegistry.isRevoked(accessToken)).thenReturn(true);
+
+        MockFilterChain chain = filter(bearer("access"));
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void userContextReadsComeFromTheVerifiedTokenPrincipal() throws Exception {
+        when(jwtTokenProvider.parseToken("access")).thenReturn(accessToken);
+        List<Object> seen = new ArrayList<>();
+        HttpServlet controller = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                // What a controller sees: every read goes through the same principal.
+                JwtAuthentication authentication =
+                        (JwtAuthentication) SecurityContextHolder.getContext().getAuthentication();
+                seen.add(authentication.getToken());
+                seen.add(UserContextUtil.getUserIdOrThrow());
+                seen.add(UserContextUtil.getTenantIdOrThrow());
+                seen.add(UserContextUtil.getEmail());
+                seen.add(UserContextUtil.getAccountScope());
+                seen.add(UserContextUtil.isPlatformUser());
+            }
+        };
+
+        MockFilterChain chain = new MockFilterChain(controller, filter);
+        chain.doFilter(bearer("access"), new MockHttpServletResponse());
+
+        assertThat(seen.get(0)).isSameAs(accessToken);
+        assertThat(seen.subList(1, seen.size())).containsExactly(7L, 3L, "jane@acme.test", "TENANT", false);
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+                .extracting(Object::toString)
+                .containsExactly("ROLE_ADMIN", "ROLE_VIEWER");
+        // The token was verified once; the reads above did not parse it again.
+        verify(jwtTokenProvider, times(1)).parseToken("access");
+    }
+
+    private MockFilterChain filter(MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+
+    private static MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
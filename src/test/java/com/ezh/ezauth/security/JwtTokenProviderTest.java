@@ -0,0 +1,200 @@
+package com.ezh.ezauth.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private static final KeyPair RSA_OLD = generate("RSA");
+    private static final KeyPair RSA_NEW = generate("RSA");
+    private static final KeyPair EC = generate("EC");
+
+    @Test
+    void signsWithTheActiveKidAndPublishesEveryKey() {
+        JwtKeyStore keyStore = keyStore("RS256", "rsa-1", true,
+                key("rsa-1", "RS256", RSA_OLD, true), key("ec-1", "ES256", EC, true));
+        JwtTokenProvider provider = provider(keyStore, true);
+
+        String token = accessToken(provider);
+
+        assertThat(kidOf(token)).isEqualTo("rsa-1");
+        assertThat(provider.parseToken(token).getUserId()).isEqualTo(7L);
+        assertThat(keyStore.getJwks().get("keys")).asInstanceOf(InstanceOfAssertFactories.LIST)
+                .extracting(jwk -> ((Map<?, ?>) jwk).get("kid") + "/" + ((Map<?, ?>) jwk).get("kty"))
+                .containsExactly("rsa-1/RSA", "ec-1/EC");
+    }
+
+    @Test
+    void tokensFromARetiredKeyStillVerifyAfterRotation() {
+        JwtTokenProvider before = provider(keyStore("RS256", "rsa-1", true,
+                key("rsa-1", "RS256", RSA_OLD, true)), true);
+        String oldToken = accessToken(before);
+
+        // The new key signs; the old one stays published with its public half only.
+        JwtTokenProvider after = provider(keyStore("RS256", "rsa-2", true,
+                key("rsa-2", "RS256", RSA_NEW, true), key("rsa-1", "RS256", RSA_OLD, false)), true);
+        String newToken = accessToken(after);
+
+        assertThat(kidOf(newToken)).isEqualTo("rsa-2");
+        assertThat(after.parseToken(oldToken).getUserId()).isEqualTo(7L);
+        assertThat(after.parseToken(newToken).getUserId()).isEqualTo(7L);
+    }
+
+    @Test
+    void rejectsUnknownKidAndAlgorithmMismatch() {
+        JwtTokenProvider issuer = provider(keyStore("RS256", "rsa-2", true,
+                key("rsa-2", "RS256", RSA_NEW, true)), true);
+        JwtTokenProvider verifier = provider(keyStore("RS256", "rsa-1", true,
+                key("rsa-1", "RS256", RSA_OLD, true)), true);
+
+        assertThatThrownBy(() -> verifier.parseToken(accessToken(issuer)))
+                .isInstanceOf(UnsupportedJwtException.class)
+                .hasMessageContaining("rsa-2");
+
+        // Right kid, wrong algorithm: an ES256 header may not select an RS256 key.
+        String swapped = Jwts.builder()
+                .setHeaderParam("kid", "rsa-1")
+                .setSubject("7")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(EC.getPrivate(), SignatureAlgorithm.ES256)
+                .compact();
+        assertThatThrownBy(() -> verifier.parseToken(swapped)).isInstanceOf(UnsupportedJwtException.class);
+    }
+
+    @Test
+    void rejectsATokenSignedByAnotherKeyUnderAKnownKid() {
+        JwtTokenProvider forger = provider(keyStore("RS256", "rsa-1", true,
+                key("rsa-1", "RS256", RSA_NEW, true)), true);
+        JwtTokenProvider verifier = provider(keyStore("RS256", "rsa-1", true,
+                key("rsa-1", "RS256", RSA_OLD, true)), true);
+
+        assertThatThrownBy(() -> verifier.parseToken(accessToken(forger))).isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void legacyHmacTokensAreAcceptedOnlyWhileEnabled() {
+        String legacy = accessToken(provider(keyStore("HS256", null, true), true));
+
+        JwtTokenProvider accepting = provider(keyStore("RS256", "rsa-1", true,
+                key("rsa-1", "RS256", RSA_OLD, true)), true);
+        JwtTokenProvider strict = provider(keyStore("RS256", "rsa-1", false,
+                key("rsa-1", "RS256", RSA_OLD, true)), false);
+
+        assertThat(kidOf(legacy)).isNull();
+        assertThat(accepting.parseToken(legacy).getUserId()).isEqualTo(7L);
+        assertThatThrownBy(() -> strict.parseToken(legacy)).isInstanceOf(UnsupportedJwtException.class);
+    }
+
+    @Test
+    void compactProfileProducesSmallerTokensThatDecodeTheSame() {
+        JwtTokenProvider standard = provider(keyStore("HS256", null, true), true);
+        JwtTokenProvider compact = provider(keyStore("HS256", null, true), true, JwtTokenProvider.ClaimsProfile.COMPACT);
+
+        String standardToken = accessToken(standard);
+        String compactToken = accessToken(compact);
+        VerifiedToken fromStandard = standard.parseToken(standardToken);
+        VerifiedToken fromCompact = standard.parseToken(compactToken);
+
+        assertThat(compactToken.length()).isLessThan(standardToken.length());
+        assertThat(fromCompact.getTenantId()).isEqualTo(fromStandard.getTenantId()).isEqualTo(3L);
+        assertThat(fromCompact.getRoles()).isEqualTo(fromStandard.getRoles());
+        assertThat(fromCompact.getFamilyId()).isEqualTo(fromStandard.getFamilyId());
+        assertThat(fromCompact.getType()).isEqualTo(fromStandard.getType()).isEqualTo(VerifiedToken.TYPE_ACCESS);
+    }
+
+    @Test
+    void absentTenantAndFamilyAreLeftOutOfBothProfiles() {
+        for (JwtTokenProvider.ClaimsProfile profile : JwtTokenProvider.ClaimsProfile.values()) {
+            JwtTokenProvider provider = provider(keyStore("HS256", null, true), true, profile);
+
+            // A platform user signing in on a legacy session: no tenant, no family.
+            VerifiedToken token = provider.parseToken(provider.generateAccessToken(7L,
+                    "4b1f8a8e-7c1d-4d5e-9a3f-2c6b7d8e9f01", "ops@ezh.test", null, null, "PLATFORM", "", "PLATFORM", null));
+
+            assertThat(token.getTenantId()).as(profile.name()).isNull();
+            assertThat(token.getTenantUuid()).as(profile.name()).isNull();
+            assertThat(token.getFamilyId()).as(profile.name()).isNull();
+            assertThat(token.getUserId()).as(profile.name()).isEqualTo(7L);
+        }
+    }
+
+    static JwtTokenProvider provider(JwtKeyStore keyStore, boolean withSecret) {
+        return provider(keyStore, withSecret, JwtTokenProvider.ClaimsProfile.STANDARD);
+    }
+
+    static JwtTokenProvider provider(JwtKeyStore keyStore, boolean withSecret, JwtTokenProvider.ClaimsProfile profile) {
+        VerifiedTokenCache cache = new VerifiedTokenCache(Caffeine.newBuilder()
+                .expireAfter(new VerifiedTokenCache.TokenExpiry())
+                .build());
+        JwtSigningProperties properties = (JwtSigningProperties) ReflectionTestUtils.getField(keyStore, "properties");
+        JwtTokenProvider provider = new JwtTokenProvider(cache, keyStore, properties);
+        ReflectionTestUtils.setField(provider, "jwtSecret", withSecret ? SECRET : "");
+        ReflectionTestUtils.setField(provider, "accessTokenExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(provider, "refreshTokenExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(provider, "claimsProfile", profile);
+        provider.init();
+        return provider;
+    }
+
+    static JwtKeyStore keyStore(String algorithm, String activeKid, boolean acceptLegacyHmac,
+                                JwtSigningProperties.Key... keys) {
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setAlgorithm(algorithm);
+        properties.setActiveKid(activeKid);
+        properties.setAcceptLegacyHmac(acceptLegacyHmac);
+        properties.setKeys(List.of(keys));
+        JwtKeyStore keyStore = new JwtKeyStore(properties);
+        keyStore.init();
+        return keyStore;
+    }
+
+    static String accessToken(JwtTokenProvider provider) {
+        return provider.generateAccessToken(7L, "4b1f8a8e-7c1d-4d5e-9a3f-2c6b7d8e9f01", "jane@acme.test",
+                3L, "0d2c4e6f-8a1b-4c3d-9e5f-7a6b8c9d0e12", "EMPLOYEE", "ADMIN,VIEWER", "TENANT", "family-id");
+    }
+
+    private static JwtSigningProperties.Key key(String kid, String algorithm, KeyPair pair, boolean withPrivate) {
+        JwtSigningProperties.Key key = new JwtSigningProperties.Key();
+        key.setKid(kid);
+        key.setAlgorithm(algorithm);
+        key.setPublicKey(Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()));
+        if (withPrivate) {
+            key.setPrivateKey(Base64.getEncoder().encodeToString(pair.getPrivate().getEncoded()));
+        }
+        return key;
+    }
+
+    private static String kidOf(String token) {
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        int at = header.indexOf("\"kid\":\"");
+        return at < 0 ? null : header.substring(at + 7, header.indexOf('"', at + 7));
+    }
+
+    private static KeyPair generate(String algorithm) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm);
+            generator.initialize("RSA".equals(algorithm) ? 2048 : 256);
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ezh.ezauth.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RoleAuthoritiesTest {
+
+    @Test
+    void identicalClaimsShareOneList() {
+        List<GrantedAuthority> first = RoleAuthorities.forRoles("ADMIN,VIEWER");
+        // A separately built string, as it would come out of a second token.
+        List<GrantedAuthority> second = RoleAuthorities.forRoles(new StringBuilder("ADMIN,").append("VIEWER").toString());
+
+        assertThat(second).isSameAs(first);
+        assertThat(first).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN", "ROLE_VIEWER");
+    }
+
+    @Test
+    void blankRolesAreSkippedAndNamesTrimmed() {
+        assertThat(RoleAuthorities.forRoles(" ADMIN ,, VIEWER,"))
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN", "ROLE_VIEWER");
+    }
+
+    @Test
+    void missingRolesGiveAnEmptyList() {
+        assertThat(RoleAuthorities.forRoles(null)).isEmpty();
+        assertThat(RoleAuthorities.forRoles("")).isEmpty();
+    }
+
+    @Test
+    void sharedListsCannotBeModified() {
+        List<GrantedAuthority> authorities = RoleAuthorities.forRoles("EMPLOYEE");
+
+        assertThatThrownBy(authorities::clear).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
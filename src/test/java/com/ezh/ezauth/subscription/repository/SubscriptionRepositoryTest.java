@@ -0,0 +1,52 @@
+package com.ezh.ezauth.subscription.repository;
+
+import com.ezh.ezauth.support.CapturedSql;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The primary-subscription lookups must inline {@code status = 'ACTIVE'} so Postgres can use
+ * the partial indexes from V10; a bound parameter would silently lose them.
+ * <p>
+ * This only checks the SQL Hibernate generates, on H2. Whether Postgres actually picks the
+ * partial indexes is NOT verified here: that needs EXPLAIN against a Postgres database with
+ * the V10 migration applied, which this build does not provide.
+ */
+@DataJpaTest
+@ActiveProfiles("jpa-test")
+class SubscriptionRepositoryTest {
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @BeforeEach
+    void clearCapturedSql() {
+        CapturedSql.clear();
+    }
+
+    @Test
+    void findPrimaryEndDateInlinesActiveStatus() {
+        subscriptionRepository.findPrimaryEndDate(1L);
+
+        assertInlinesActiveStatus(CapturedSql.statements());
+    }
+
+    @Test
+    void findPrimaryActiveSubscriptionInlinesActiveStatus() {
+        subscriptionRepository.findPrimaryActiveSubscription(1L);
+
+        assertInlinesActiveStatus(CapturedSql.statements());
+    }
+
+    private static void assertInlinesActiveStatus(List<String> statements) {
+        assertThat(statements).hasSize(1);
+        assertThat(statements.get(0)).contains("'ACTIVE'");
+    }
+}
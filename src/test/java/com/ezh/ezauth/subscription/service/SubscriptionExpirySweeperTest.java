@@ -0,0 +1,128 @@
+package com.ezh.ezauth.subscription.service;
+
+import com.ezh.ezauth.common.event.SubscriptionChangedEvent;
+import com.ezh.ezauth.subscription.entity.SubscriptionStatus;
+import com.ezh.ezauth.subscription.repository.SubscriptionRepository;
+import com.ezh.ezauth.subscription.repository.projection.ExpiringSubscriptionProjection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Serves ended subscriptions from a list the way the keyset query does: id order, strictly
+ * after the cursor, at most {@code limit} rows.
+ */
+class SubscriptionExpirySweeperTest {
+
+    private final SubscriptionRepository repository = mock(SubscriptionRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final List<Object> events = new ArrayList<>();
+    private final List<Long> cursors = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SubscriptionExpirySweeper sweeper =
+            new SubscriptionExpirySweeper(repository, events::add, transactionManager, meterRegistry);
+
+    @Test
+    void walksEndedRowsInKeysetBatchesUntilAShortOne() {
+        given(2, row(1L, 10L, true), row(2L, 10L, false), row(3L, 11L, false), row(4L, 12L, true), row(5L, 12L, false));
+
+        sweeper.sweep();
+
+        assertThat(cursors).containsExactly(0L, 2L, 4L);
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(repository).renewByIdIn(eq(List.of(1L)), any());
+        verify(repository).renewByIdIn(eq(List.of(4L)), any());
+        verify(repository).expireByIdIn(eq(List.of(2L)), eq(SubscriptionStatus.ACTIVE), eq(SubscriptionStatus.EXPIRED), any());
+        verify(repository).expireByIdIn(eq(List.of(3L)), eq(SubscriptionStatus.ACTIVE), eq(SubscriptionStatus.EXPIRED), any());
+        verify(repository).expireByIdIn(eq(List.of(5L)), eq(SubscriptionStatus.ACTIVE), eq(SubscriptionStatus.EXPIRED), any());
+        // One event per tenant per batch: tenant 12 spans the second and third batches.
+        assertThat(events).containsExactly(new SubscriptionChangedEvent(10L),
+                new SubscriptionChangedEvent(11L), new SubscriptionChangedEvent(12L),
+                new SubscriptionChangedEvent(12L));
+        assertThat(transitions("renewed")).isEqualTo(2);
+        assertThat(transitions("expired")).isEqualTo(3);
+    }
+
+    @Test
+    void fullLastBatchIsFollowedByOneEmptyQuery() {
+        given(2, row(1L, 10L, false), row(2L, 10L, false), row(3L, 11L, false), row(4L, 11L, false));
+
+        sweeper.sweep();
+
+        assertThat(cursors).containsExactly(0L, 2L, 4L);
+        verify(repository, never()).renewByIdIn(anyCollection(), any());
+        assertThat(transitions("expired")).isEqualTo(4);
+    }
+
+    @Test
+    void nothingEndedDoesNothing() {
+        given(500);
+
+        sweeper.sweep();
+
+        assertThat(cursors).containsExactly(0L);
+        verify(repository, never()).expireByIdIn(anyCollection(), any(), any(), any());
+        assertThat(events).isEmpty();
+    }
+
+    private void given(int batchSize, ExpiringSubscriptionProjection... ended) {
+        ReflectionTestUtils.setField(sweeper, "batchSize", batchSize);
+        when(repository.findEndedAfterId(any(), anyLong(), any(Limit.class))).thenAnswer(call -> {
+            long afterId = call.getArgument(1);
+            Limit limit = call.getArgument(2);
+            cursors.add(afterId);
+            return List.of(ended).stream()
+                    .filter(row -> row.getId() > afterId)
+                    .limit(limit.max())
+                    .toList();
+        });
+        when(repository.renewByIdIn(anyCollection(), any())).thenAnswer(call -> ((Collection<?>) call.getArgument(0)).size());
+        when(repository.expireByIdIn(anyCollection(), any(), any(), any()))
+                .thenAnswer(call -> ((Collection<?>) call.getArgument(0)).size());
+    }
+
+    private double transitions(String outcome) {
+        return meterRegistry.get("ezauth.subscription.sweeper.transitions").tag("outcome", outcome).counter().count();
+    }
+
+    private static ExpiringSubscriptionProjection row(Long id, Long tenantId, boolean renewable) {
+        return new ExpiringSubscriptionProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getTenantId() {
+                return tenantId;
+            }
+
+            @Override
+            public Boolean getAutoRenew() {
+                return renewable;
+            }
+
+            @Override
+            public Boolean getPlanActive() {
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package com.ezh.ezauth.subscription.service;
+
+import com.ezh.ezauth.cluster.ClusterEvent;
+import com.ezh.ezauth.common.event.SubscriptionChangedEvent;
+import com.ezh.ezauth.subscription.repository.SubscriptionRepository;
+import com.ezh.ezauth.subscription.repository.projection.SubscriptionEndProjection;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Concurrent writers are simulated by re-entering the index from inside a repository call,
+ * i.e. while the outer read is still in flight.
+ */
+class SubscriptionValidityIndexTest {
+
+    private static final Long TENANT_ID = 3L;
+
+    private final SubscriptionRepository repository = mock(SubscriptionRepository.class);
+    private final SubscriptionValidityIndex index = new SubscriptionValidityIndex(repository);
+
+    @Test
+    void firstLookupIsRemembered() {
+        when(repository.findPrimaryEndDate(TENANT_ID)).thenReturn(Optional.of(LocalDateTime.now().plusDays(1)));
+
+        assertThat(index.isValid(TENANT_ID)).isTrue();
+        assertThat(index.isValid(TENANT_ID)).isTrue();
+
+        verify(repository, times(1)).findPrimaryEndDate(TENANT_ID);
+    }
+
+    @Test
+    void reloadDuringAFirstLookupWins() {
+        // The lookup reads the old, active subscription; the cancellation commits and its reload
+        // completes before the lookup stores its result.
+        when(repository.findPrimaryEndDate(TENANT_ID))
+                .thenAnswer(call -> {
+                    index.onSubscriptionChanged(new ClusterEvent<>(new SubscriptionChangedEvent(TENANT_ID)));
+                    return Optional.of(LocalDateTime.now().plusDays(1));
+                })
+                .thenReturn(Optional.empty());
+
+        assertThat(index.isValid(TENANT_ID)).isFalse();
+        assertThat(index.isValid(TENANT_ID)).isFalse();
+    }
+
+    @Test
+    void reloadDuringAReconcileIsNotOverwritten() {
+        when(repository.findPrimaryEndDate(TENANT_ID)).thenReturn(Optional.empty());
+        when(repository.findPrimaryEndDates()).thenAnswer(call -> {
+            index.onSubscriptionChanged(new ClusterEvent<>(new SubscriptionChangedEvent(TENANT_ID)));
+            return List.of(endsAt(TENANT_ID, LocalDateTime.now().plusDays(1)));
+        });
+
+        index.reconcile();
+
+        assertThat(index.isValid(TENANT_ID)).isFalse();
+    }
+
+    @Test
+    void reconcileCorrectsAndForgetsEndedSubscriptions() {
+        when(repository.findPrimaryEndDate(TENANT_ID)).thenReturn(Optional.of(LocalDateTime.now().plusDays(1)));
+        when(repository.findPrimaryEndDates()).thenReturn(List.of());
+        assertThat(index.isValid(TENANT_ID)).isTrue();
+
+        // The change event was missed; the next reconcile no longer sees an active subscription.
+        index.reconcile();
+
+        assertThat(index.isValid(TENANT_ID)).isFalse();
+        verify(repository, times(1)).findPrimaryEndDate(TENANT_ID);
+    }
+
+    private static SubscriptionEndProjection endsAt(Long tenantId, LocalDateTime endDate) {
+        return new SubscriptionEndProjection() {
+            @Override
+            public Long getTenantId() {
+                return tenantId;
+            }
+
+            @Override
+            public LocalDateTime getEndDate() {
+                return endDate;
+            }
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package com.ezh.ezauth.tenant.repository;
+
+import com.ezh.ezauth.common.dto.ApplicationDto;
+import com.ezh.ezauth.common.entity.Address;
+import com.ezh.ezauth.common.entity.AddressType;
+import com.ezh.ezauth.common.entity.Application;
+import com.ezh.ezauth.common.entity.EntityType;
+import com.ezh.ezauth.common.repository.AddressRepository;
+import com.ezh.ezauth.subscription.entity.PlanType;
+import com.ezh.ezauth.subscription.entity.Subscription;
+import com.ezh.ezauth.subscription.entity.SubscriptionPlan;
+import com.ezh.ezauth.subscription.entity.SubscriptionStatus;
+import com.ezh.ezauth.subscription.repository.SubscriptionRepository;
+import com.ezh.ezauth.tenant.dto.TenantDto;
+import com.ezh.ezauth.tenant.entity.BusinessType;
+import com.ezh.ezauth.tenant.entity.Tenant;
+import com.ezh.ezauth.tenant.entity.TenantDetails;
+import com.ezh.ezauth.tenant.service.TenantDtoLoader;
+import com.ezh.ezauth.user.entity.User;
+import com.ezh.ezauth.user.entity.UserType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("jpa-test")
+class TenantRepositoryTest {
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    /** A batch of tenant DTOs costs one query per association, not one per tenant. */
+    @Test
+    void tenantDtoBatchLoadsWithFourSelects() {
+        Application application = entityManager.persist(Application.builder()
+                .appName("Inventory").appKey("EZH_INV_APP").isActive(true).build());
+        SubscriptionPlan plan = entityManager.persist(SubscriptionPlan.builder()
+                .application(application)
+                .name("Inventory monthly")
+                .description("Monthly plan")
+                .type(PlanType.MONTHLY)
+                .price(BigDecimal.TEN)
+                .durationDays(30)
+                .build());
+        List<Long> tenantIds = new ArrayList<>();
+        for (String code : new String[]{"ACME", "GLOBEX", "INITECH"}) {
+            tenantIds.add(persistTenant(code, application, plan).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = statistics();
+
+        Map<Long, TenantDto> tenants = new TenantDtoLoader(tenantRepository, subscriptionRepository,
+                addressRepository, transactionManager).loadAll(new HashSet<>(tenantIds));
+
+        assertThat(tenants).containsOnlyKeys(tenantIds);
+        assertThat(tenants.values()).allSatisfy(tenant -> {
+            assertThat(tenant.getTenantAdmin().getEmail()).isEqualTo("admin@" + tenant.getTenantCode().toLowerCase() + ".test");
+            assertThat(tenant.getTenantDetails().getLegalName()).isEqualTo(tenant.getTenantCode() + " Ltd");
+            assertThat(tenant.getApplications()).extracting(ApplicationDto::getAppKey).containsExactly("EZH_INV_APP");
+            assertThat(tenant.getTenantAddress()).hasSize(1);
+            assertThat(tenant.getSubscription().getPlan().getName()).isEqualTo("Inventory monthly");
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    private Tenant persistTenant(String code, Application application, SubscriptionPlan plan) {
+        Tenant tenant = entityManager.persist(Tenant.builder()
+                .tenantName(code)
+                .tenantCode(code)
+                .applications(Set.of(application))
+                .build());
+        User admin = entityManager.persist(User.builder()
+                .fullName(code + " Admin")
+                .email("admin@" + code.toLowerCase() + ".test")
+                .passwordHash("{bcrypt}hash")
+                .userType(UserType.EMPLOYEE)
+                .tenant(tenant)
+                .build());
+        tenant.setTenantAdmin(admin);
+        entityManager.persist(TenantDetails.builder()
+                .tenant(tenant)
+                .businessType(BusinessType.RETAIL)
+                .legalName(code + " Ltd")
+                .baseCurrency("INR")
+                .timeZone("Asia/Kolkata")
+                .build());
+        entityManager.persist(Address.builder()
+                .entityType(EntityType.TENANT)
+                .entityId(tenant.getId())
+                .city("Pune")
+                .addressType(AddressType.OFFICE)
+                .build());
+        entityManager.persist(Subscription.builder()
+                .plan(plan)
+                .tenant(tenant)
+                .status(SubscriptionStatus.ACTIVE)
+                .startDate(LocalDateTime.now().minusDays(1))
+                .endDate(LocalDateTime.now().plusDays(29))
+                .isPrimary(true)
+                .build());
+        return tenant;
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,122 @@
+package com.ezh.ezauth.user.repository;
+
+import com.ezh.ezauth.common.entity.Application;
+import com.ezh.ezauth.common.entity.Module;
+import com.ezh.ezauth.common.entity.Privilege;
+import com.ezh.ezauth.common.entity.Role;
+import com.ezh.ezauth.tenant.entity.Tenant;
+import com.ezh.ezauth.user.dto.UserApplicationDto;
+import com.ezh.ezauth.user.dto.UserInitResponse;
+import com.ezh.ezauth.user.entity.User;
+import com.ezh.ezauth.user.entity.UserApplication;
+import com.ezh.ezauth.user.entity.UserModulePrivilege;
+import com.ezh.ezauth.user.entity.UserRole;
+import com.ezh.ezauth.user.entity.UserType;
+import com.ezh.ezauth.user.service.UserInitLoader;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("jpa-test")
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserApplicationRepository userApplicationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    /** Sign-in reads the user, tenant and role keys; all of it must come from one query. */
+    @Test
+    void findForSignInLoadsUserTenantAndRolesWithOneSelect() {
+        Tenant tenant = persistUserWithRoles();
+        Statistics statistics = statistics();
+
+        User loaded = userRepository.findForSignIn("jane@acme.test").orElseThrow();
+
+        assertThat(loaded.getTenant().getTenantUuid()).isEqualTo(tenant.getTenantUuid());
+        assertThat(loaded.getUserRoles())
+                .extracting(userRole -> userRole.getRole().getRoleKey())
+                .containsExactlyInAnyOrder("ADMIN", "VIEWER");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /** The init payload is two flat projections, whatever the number of roles, apps and grants. */
+    @Test
+    void userInitLoadsWithTwoSelects() {
+        persistUserWithRoles();
+        User user = userRepository.findByEmail("jane@acme.test").orElseThrow();
+        for (String appKey : new String[]{"EZH_INV_APP", "EZH_POS_APP"}) {
+            Application application = entityManager.persist(Application.builder()
+                    .appName(appKey).appKey(appKey).isActive(true).build());
+            Module module = entityManager.persist(Module.builder()
+                    .moduleName("Admin").moduleKey("USER_MGMT").application(application).isActive(true).build());
+            UserApplication userApplication = entityManager.persist(UserApplication.builder()
+                    .user(user).application(application).isActive(true).build());
+            for (String privilegeKey : new String[]{"VIEW", "EDIT"}) {
+                Privilege privilege = entityManager.persist(Privilege.builder()
+                        .privilegeName(privilegeKey).privilegeKey(privilegeKey).module(module).build());
+                entityManager.persist(UserModulePrivilege.builder()
+                        .userApplication(userApplication).privilege(privilege).isActive(true).build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = statistics();
+
+        UserInitResponse init = new UserInitLoader(userRepository, userApplicationRepository)
+                .load(UserInitLoader.key(user.getId(), 0));
+
+        assertThat(init.getUserRoles()).containsExactlyInAnyOrder("ADMIN", "VIEWER");
+        assertThat(init.getTenantName()).isEqualTo("Acme");
+        assertThat(init.getUserApplications())
+                .extracting(UserApplicationDto::getAppKey)
+                .containsExactlyInAnyOrder("EZH_INV_APP", "EZH_POS_APP");
+        assertThat(init.getUserApplications())
+                .allSatisfy(app -> assertThat(app.getModulePrivileges().get("USER_MGMT"))
+                        .containsExactlyInAnyOrder("VIEW", "EDIT"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private Tenant persistUserWithRoles() {
+        Tenant tenant = entityManager.persist(Tenant.builder().tenantName("Acme").tenantCode("ACME").build());
+        User user = entityManager.persist(User.builder()
+                .fullName("Jane Doe")
+                .email("jane@acme.test")
+                .passwordHash("{bcrypt}hash")
+                .userType(UserType.EMPLOYEE)
+                .tenant(tenant)
+                .build());
+        for (String roleKey : new String[]{"ADMIN", "VIEWER"}) {
+            Role role = entityManager.persist(Role.builder()
+                    .roleName(roleKey)
+                    .roleKey(roleKey)
+                    .tenant(tenant)
+                    .isActive(true)
+                    .isSystemRole(false)
+                    .build());
+            entityManager.persist(UserRole.builder().user(user).role(role).isActive(true).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return tenant;
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,104 @@
+package com.ezh.ezauth.user.service;
+
+import com.ezh.ezauth.common.repository.PrivilegeRepository;
+import com.ezh.ezauth.common.repository.projection.PrivilegeIndexProjection;
+import com.ezh.ezauth.security.Privileges;
+import com.ezh.ezauth.tenant.repository.TenantRepository;
+import com.ezh.ezauth.user.repository.UserModulePrivilegeRepository;
+import com.ezh.ezauth.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PermissionServiceTest {
+
+    private static final Long USER_ID = 7L;
+    private static final Long TENANT_ID = 3L;
+
+    private final PrivilegeRepository privilegeRepository = mock(PrivilegeRepository.class);
+    private final UserModulePrivilegeRepository userModulePrivilegeRepository = mock(UserModulePrivilegeRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TenantRepository tenantRepository = mock(TenantRepository.class);
+
+    // No cache configured: every check builds its snapshot from the repositories.
+    private final PermissionService permissionService = new PermissionService(privilegeRepository,
+            userModulePrivilegeRepository, userRepository, tenantRepository, mock(CacheManager.class),
+            mock(ExecutorService.class));
+
+    @BeforeEach
+    void setUp() {
+        // The same USER_MGMT module in two applications; only EZH_INV_APP has SETTINGS.
+        List<PrivilegeIndexProjection> privileges = List.of(
+                privilege(1L, "EZH_INV_APP", "EZH_INV_USER_MGMT", "EZH_INV_USER_MGMT_VIEW"),
+                privilege(2L, "EZH_INV_APP", "EZH_INV_SETTINGS", "EZH_INV_SETTINGS_EDIT"),
+                privilege(3L, "EZH_POS_APP", "EZH_INV_USER_MGMT", "EZH_INV_USER_MGMT_VIEW"));
+        when(privilegeRepository.findPrivilegeIndex()).thenReturn(privileges);
+        when(userRepository.findTenantIdById(USER_ID)).thenReturn(Optional.of(TENANT_ID));
+    }
+
+    @Test
+    void privilegeIsCheckedInTheTenantsOwnApplication() throws Exception {
+        when(tenantRepository.findAppKeysByTenantId(TENANT_ID)).thenReturn(Set.of("EZH_POS_APP"));
+        when(userModulePrivilegeRepository.findActivePrivilegeIdsByUserId(USER_ID)).thenReturn(List.of(3L));
+
+        assertThat(permissionService.passesPrivilegeCheck(USER_ID, Privileges.USER_MGMT_VIEW)).isTrue();
+    }
+
+    @Test
+    void grantInAnApplicationTheTenantDoesNotHaveDoesNotCount() throws Exception {
+        when(tenantRepository.findAppKeysByTenantId(TENANT_ID)).thenReturn(Set.of("EZH_POS_APP"));
+        when(userModulePrivilegeRepository.findActivePrivilegeIdsByUserId(USER_ID)).thenReturn(List.of(1L));
+
+        assertThat(permissionService.passesPrivilegeCheck(USER_ID, Privileges.USER_MGMT_VIEW)).isFalse();
+    }
+
+    @Test
+    void moduleMissingFromEveryTenantApplicationIsNotEnforced() throws Exception {
+        when(tenantRepository.findAppKeysByTenantId(TENANT_ID)).thenReturn(Set.of("EZH_POS_APP"));
+        when(userModulePrivilegeRepository.findActivePrivilegeIdsByUserId(USER_ID)).thenReturn(List.of());
+
+        assertThat(permissionService.passesPrivilegeCheck(USER_ID, Privileges.SETTINGS_EDIT)).isTrue();
+    }
+
+    @Test
+    void moduleInATenantApplicationIsEnforced() throws Exception {
+        when(tenantRepository.findAppKeysByTenantId(TENANT_ID)).thenReturn(Set.of("EZH_INV_APP"));
+        when(userModulePrivilegeRepository.findActivePrivilegeIdsByUserId(USER_ID)).thenReturn(List.of(1L));
+
+        assertThat(permissionService.passesPrivilegeCheck(USER_ID, Privileges.USER_MGMT_VIEW)).isTrue();
+        assertThat(permissionService.passesPrivilegeCheck(USER_ID, Privileges.SETTINGS_EDIT)).isFalse();
+    }
+
+    private static PrivilegeIndexProjection privilege(Long id, String appKey, String moduleKey, String privilegeKey) {
+        return new PrivilegeIndexProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getAppKey() {
+                return appKey;
+            }
+
+            @Override
+            public String getModuleKey() {
+                return moduleKey;
+            }
+
+            @Override
+            public String getPrivilegeKey() {
+                return privilegeKey;
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.ezh.ezauth.user.service;
+
+import com.ezh.ezauth.common.event.RoleChangedEvent;
+import com.ezh.ezauth.common.event.UserChangedEvent;
+import com.ezh.ezauth.user.repository.UserRepository;
+import com.ezh.ezauth.utils.exception.CommonException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PermissionVersionServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PermissionVersionService service = new PermissionVersionService(userRepository, mock(CacheManager.class));
+
+    @AfterEach
+    void clearTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void changeInsideATransactionBumpsTheVersion() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        service.onUserChanged(new UserChangedEvent(7L));
+        service.onRoleChanged(new RoleChangedEvent(5L, 3L));
+
+        verify(userRepository).bumpPermissionVersion(7L);
+        verify(userRepository).bumpPermissionVersionByRoleId(5L);
+    }
+
+    @Test
+    void changePublishedOutsideATransactionFails() {
+        assertThatThrownBy(() -> service.onUserChanged(new UserChangedEvent(7L)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("inside the transaction");
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void versionIsReadOnceUntilEvictedAndSelectsTheInitEntry() {
+        CacheManager cacheManager = new ConcurrentMapCacheManager(PermissionVersionService.VERSION_CACHE);
+        PermissionVersionService cached = new PermissionVersionService(userRepository, cacheManager);
+        when(userRepository.findPermissionVersionById(7L)).thenReturn(Optional.of(3L), Optional.of(4L));
+
+        String before = UserInitLoader.key(7L, cached.current(7L));
+        cached.current(7L);
+        // What UserCacheInvalidator does after the bumping transaction commits.
+        cacheManager.getCache(PermissionVersionService.VERSION_CACHE).evict(7L);
+        String after = UserInitLoader.key(7L, cached.current(7L));
+
+        assertThat(before).isEqualTo("7:3");
+        assertThat(after).isEqualTo("7:4");
+        verify(userRepository, times(2)).findPermissionVersionById(7L);
+    }
+
+    @Test
+    void unknownUserSurfacesAsNotFound() {
+        PermissionVersionService cached = new PermissionVersionService(userRepository,
+                new ConcurrentMapCacheManager(PermissionVersionService.VERSION_CACHE));
+        when(userRepository.findPermissionVersionById(7L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> cached.current(7L))
+                .isInstanceOf(CommonException.class)
+                .hasFieldOrPropertyWithValue("httpStatus", HttpStatus.NOT_FOUND);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ezh.ezauth.user.service;
+
+import com.ezh.ezauth.common.repository.projection.PrivilegeIndexProjection;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PrivilegeIndexTest {
+
+    @Test
+    void appsSharingAModulePrivilegeGetTheirOwnBits() {
+        PrivilegeIndex index = PrivilegeIndex.build(List.of(
+                privilege(1L, "EZH_INV_APP", "USER_MGMT", "VIEW"),
+                privilege(2L, "EZH_POS_APP", "USER_MGMT", "VIEW"),
+                privilege(3L, "EZH_POS_APP", "USER_MGMT", "EDIT")));
+
+        assertThat(index.bitOf("EZH_INV_APP:USER_MGMT:VIEW")).isEqualTo(0);
+        assertThat(index.bitOf("EZH_POS_APP:USER_MGMT:VIEW")).isEqualTo(1);
+        assertThat(index.bitOfPrivilegeId(2L)).isEqualTo(1);
+        assertThat(index.bitsOf("USER_MGMT:VIEW")).containsExactly(0, 1);
+        assertThat(index.bitsOf("USER_MGMT:EDIT")).containsExactly(2);
+        assertThat(index.bitsOf("USER_MGMT:DELETE")).isEmpty();
+        assertThat(index.getKeys()).containsExactly(
+                "EZH_INV_APP:USER_MGMT:VIEW", "EZH_POS_APP:USER_MGMT:VIEW", "EZH_POS_APP:USER_MGMT:EDIT");
+    }
+
+    @Test
+    void duplicateKeyFailsTheBuild() {
+        assertThatThrownBy(() -> PrivilegeIndex.build(List.of(
+                privilege(1L, "EZH_INV_APP", "USER_MGMT", "VIEW"),
+                privilege(2L, "EZH_INV_APP", "USER_MGMT", "VIEW"))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("EZH_INV_APP:USER_MGMT:VIEW");
+    }
+
+    @Test
+    void versionFollowsTheContents() {
+        List<PrivilegeIndexProjection> privileges = List.of(
+                privilege(1L, "EZH_INV_APP", "USER_MGMT", "VIEW"),
+                privilege(2L, "EZH_POS_APP", "USER_MGMT", "VIEW"));
+
+        assertThat(PrivilegeIndex.build(privileges).getVersion())
+                .isEqualTo(PrivilegeIndex.build(privileges).getVersion())
+                .isNotEqualTo(PrivilegeIndex.build(privileges.subList(0, 1)).getVersion());
+    }
+
+    private static PrivilegeIndexProjection privilege(Long id, String appKey, String moduleKey, String privilegeKey) {
+        return new PrivilegeIndexProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getAppKey() {
+                return appKey;
+            }
+
+            @Override
+            public String getModuleKey() {
+                return moduleKey;
+            }
+
+            @Override
+            public String getPrivilegeKey() {
+                return privilegeKey;
+            }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.ezh.ezauth.user.service;
+
+import com.ezh.ezauth.common.dto.AddressDto;
+import com.ezh.ezauth.common.entity.AddressType;
+import com.ezh.ezauth.common.entity.EntityType;
+import com.ezh.ezauth.common.repository.AddressRepository;
+import com.ezh.ezauth.common.repository.projection.AddressProjection;
+import com.ezh.ezauth.config.CacheConfig;
+import com.ezh.ezauth.user.dto.UserMiniDto;
+import com.ezh.ezauth.user.repository.UserRepository;
+import com.ezh.ezauth.user.repository.projection.UserMiniProjection;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/** The /user/bulk caches as CacheConfig wires them: misses of one request load together. */
+class UserMiniLoaderTest {
+
+    private final CacheConfig config = new CacheConfig();
+    private ExecutorService executor;
+    private UserRepository userRepository;
+    private AddressRepository addressRepository;
+    private AsyncLoadingCache<Long, UserMiniDto> userMiniCache;
+    private AsyncLoadingCache<Long, List<AddressDto>> userAddressCache;
+
+    @BeforeEach
+    void setUp() {
+        executor = config.cacheLoaderExecutor();
+        userRepository = mock(UserRepository.class);
+        addressRepository = mock(AddressRepository.class);
+        userMiniCache = config.userMiniCache(new UserMiniLoader(userRepository), new SimpleMeterRegistry(), executor);
+        userAddressCache = config.userAddressCache(new UserAddressLoader(addressRepository), new SimpleMeterRegistry(), executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void missesAreLoadedWithOneQueryAndUnknownIdsLeftOut() {
+        userMiniCache.synchronous().put(1L, UserMiniDto.builder().id(1L).name("Cached").build());
+        List<UserMiniProjection> rows = List.of(mini(2L), mini(3L));
+        when(userRepository.findUserMini(anyList())).thenReturn(rows);
+
+        Map<Long, UserMiniDto> users = userMiniCache.getAll(Set.of(1L, 2L, 3L, 99L)).join();
+
+        assertThat(users).containsOnlyKeys(1L, 2L, 3L);
+        assertThat(users.get(1L).getName()).isEqualTo("Cached");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Long>> ids = ArgumentCaptor.forClass(List.class);
+        verify(userRepository, times(1)).findUserMini(ids.capture());
+        assertThat(ids.getValue()).containsExactlyInAnyOrder(2L, 3L, 99L);
+    }
+
+    @Test
+    void usersWithoutAddressesAreCachedAsEmpty() {
+        List<AddressProjection> rows = List.of(address(10L, 2L), address(11L, 2L));
+        when(addressRepository.findAddressesByEntityIds(eq(EntityType.USER), anyList())).thenReturn(rows);
+
+        Map<Long, List<AddressDto>> first = userAddressCache.getAll(Set.of(2L, 3L)).join();
+        Map<Long, List<AddressDto>> second = userAddressCache.getAll(Set.of(2L, 3L)).join();
+
+        assertThat(first.get(2L)).extracting(AddressDto::getId).containsExactly(10L, 11L);
+        assertThat(first.get(3L)).isEmpty();
+        assertThat(second).isEqualTo(first);
+        verify(addressRepository, times(1)).findAddressesByEntityIds(any(), anyList());
+    }
+
+    private static UserMiniProjection mini(Long id) {
+        UserMiniProjection projection = mock(UserMiniProjection.class);
+        when(projection.getId()).thenReturn(id);
+        when(projection.getFullName()).thenReturn("User " + id);
+        return projection;
+    }
+
+    private static AddressProjection address(Long id, Long userId) {
+        AddressProjection projection = mock(AddressProjection.class, withSettings().defaultAnswer(CALLS_REAL_METHODS));
+        when(projection.getId()).thenReturn(id);
+        when(projection.getEntityId()).thenReturn(userId);
+        when(projection.getAddressType()).thenReturn(AddressType.OFFICE);
+        return projection;
+    }
+}